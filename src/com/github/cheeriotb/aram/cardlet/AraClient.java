@@ -0,0 +1,44 @@
+/*
+ *  Copyright (C) 2018 cheeriotb <cheerio.the.bear@gmail.com>
+ *
+ *  This program is free software; you can redistribute it and/or modify
+ *  it under the terms of the GNU General Public License version 2 as
+ *  published by the Free Software Foundation.
+ *
+ *  This program is distributed in the hope that it will be useful,
+ *  but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *  GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License
+ *  along with this program; if not, write to the Free Software
+ *  Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston,
+ *  MA 02110-1301, USA.
+ */
+
+package com.github.cheeriotb.aram.cardlet;
+
+import javacard.framework.Shareable;
+
+/*
+   Shareable interface of ARA-C.
+
+   The applet registered as ARA-C with Command-Register-Client-AIDs returns this interface from
+   getShareableInterfaceObject(). The ARA-M merges the REF-AR-DOs of ARA-C into its own rules,
+   and takes them again only when the version of ARA-C has changed, so ARA-C is never called
+   while the rules are sent.
+*/
+public interface AraClient extends Shareable {
+    /*
+       Returns the number which shall change every time the REF-AR-DOs of ARA-C are updated.
+    */
+    short getVersion();
+
+    /*
+       Writes the REF-AR-DO of the specified number (from 0) at the specified offset of the
+       buffer, which is a global array such as the APDU buffer, and returns its length, or 0
+       if ARA-C has no more REF-AR-DOs. The REF-AR-DO shall not be longer than the specified
+       length.
+    */
+    short getRefArDo(short index, byte[] buffer, short offset, short length);
+}
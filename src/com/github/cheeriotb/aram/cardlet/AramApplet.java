@@ -22,9 +22,14 @@ import javacard.framework.APDU;
 import javacard.framework.Applet;
 import javacard.framework.ISO7816;
 import javacard.framework.ISOException;
+import javacard.framework.JCSystem;
+import javacard.framework.MultiSelectable;
 import javacard.framework.Util;
+import org.globalplatform.GPSystem;
+import org.globalplatform.SecureChannel;
 
-public class AramApplet extends Applet {
+public class AramApplet extends Applet implements MultiSelectable {
+    // Extended length APDUs (javacardx.apdu.ExtendedLength) are not available in Java Card 2.2.1.
     private static final short DATA_BUFFER_SIZE = 0x100;
 
     private static final byte TEMPLATE_FCI         = 0x00;
@@ -50,991 +55,217 @@ public class AramApplet extends Applet {
             (byte) 0x03, (byte) 0x04, (byte) 0x05
     };
 
-    private static final byte INS_GET_RESPONSE = (byte) 0xC0;
-    private static final byte INS_GET_DATA     = (byte) 0xCA;
+    private static final byte INS_GET_RESPONSE          = (byte) 0xC0;
+    private static final byte INS_GET_DATA              = (byte) 0xCA;
+    private static final byte INS_STORE_DATA            = (byte) 0xE2;
+    private static final byte INS_INITIALIZE_UPDATE     = (byte) 0x50;
+    private static final byte INS_EXTERNAL_AUTHENTICATE = (byte) 0x82;
 
     private static final short GET_DATA_ALL         = (short) 0xFF40;
+    private static final short GET_DATA_SPECIFIC    = (short) 0xFF50;
     private static final short GET_DATA_NEXT        = (short) 0xFF60;
     private static final short GET_DATA_REFRESH_TAG = (short) 0xDF20;
 
-    private static final byte[] RESPONSE_ALL_REF_AR_DO = {
-        /*
-           |Response-ALL-REF-AR-DO|T|FF40  |
-           |                      |L|8206A8|
-        */
-        (byte) 0xFF, (byte) 0x40, (byte) 0x82, (byte) 0x06, (byte) 0xA8,
+    // Proprietary tags.
+    private static final short GET_DATA_ALL_IF_MODIFIED    = (short) 0xFF41;
+    private static final short GET_DATA_UPDATES            = (short) 0xFF42;
+    private static final short GET_DATA_BOOTSTRAP          = (short) 0xFF43;
+    private static final short GET_DATA_CARRIER_PRIVILEGES = (short) 0xFF44;
+    private static final short GET_DATA_METRICS            = (short) 0xDF30;
+    private static final short GET_DATA_CLEAR_METRICS      = (short) 0xDF31;
+    private static final short GET_DATA_TRACE              = (short) 0xDF32;
+    private static final short GET_DATA_SAVED_TRACE        = (short) 0xDF33;
 
-        /*
-           REF-AR-DO for UICC Carrier Privileges
-
-           |REF-AR-DO|T|E2    | |                  | |                                        |
-           |         |L|2F    | |                  | |                                        |
-           |         |V|REF-DO|T|E1                | |                                        |
-           |         | |      |L|1E                | |                                        |
-           |         | |      |V|AID-REF-DO        |T|4F                                      |
-           |         | |      | |                  |L|06                                      |
-           |         | |      | |                  |V|FFFFFFFFFFFF                            |
-           |         | |      | |DeviceAppID-REF-DO|T|C1                                      |
-           |         | |      | |                  |L|14                                      |
-           |         | |      | |                  |V|61ED377E85D386A8DFEE6B864BD85B0BFAA5AF81|
-           |         | |AR-DO |T|E3                | |                                        |
-           |         | |      |L|0D                | |                                        |
-           |         | |      |V|APDU-AR-DO        |T|D0                                      |
-           |         | |      | |                  |L|01                                      |
-           |         | |      | |                  |V|01 (Always)                             |
-           |         | |      | |PERM-AR-DO        |T|DB                                      |
-           |         | |      | |                  |L|08                                      |
-           |         | |      | |                  |V|0000000000000001                        |
-        */
-        (byte) 0xE2, (byte) 0x2F, (byte) 0xE1, (byte) 0x1E, (byte) 0x4F, (byte) 0x06,
-        (byte) 0xFF, (byte) 0xFF, (byte) 0xFF, (byte) 0xFF, (byte) 0xFF, (byte) 0xFF,
-        (byte) 0xC1, (byte) 0x14, (byte) 0x61, (byte) 0xED, (byte) 0x37, (byte) 0x7E,
-        (byte) 0x85, (byte) 0xD3, (byte) 0x86, (byte) 0xA8, (byte) 0xDF, (byte) 0xEE,
-        (byte) 0x6B, (byte) 0x86, (byte) 0x4B, (byte) 0xD8, (byte) 0x5B, (byte) 0x0B,
-        (byte) 0xFA, (byte) 0xA5, (byte) 0xAF, (byte) 0x81, (byte) 0xE3, (byte) 0x0D,
-        (byte) 0xD0, (byte) 0x01, (byte) 0x01, (byte) 0xDB, (byte) 0x08, (byte) 0x00,
-        (byte) 0x00, (byte) 0x00, (byte) 0x00, (byte) 0x00, (byte) 0x00, (byte) 0x00,
-        (byte) 0x01,
+    // AID-REF-DO of the REF-AR-DOs for UICC Carrier Privileges.
+    private static final byte[] CARRIER_PRIVILEGES_AID = {
+        (byte) 0xFF, (byte) 0xFF, (byte) 0xFF, (byte) 0xFF, (byte) 0xFF, (byte) 0xFF
+    };
 
-        /*
-           REF-AR-DO for non-specific applications and applets
-
-           |REF-AR-DO|T|E2    | |                  | |                                        |
-           |         |L|0B    | |                  | |                                        |
-           |         |V|REF-DO|T|E1                | |                                        |
-           |         | |      |L|04                | |                                        |
-           |         | |      |V|AID-REF-DO        |T|4F                                      |
-           |         | |      | |                  |L|00 (Not Specified)                      |
-           |         | |      | |DeviceAppID-REF-DO|T|C1                                      |
-           |         | |      | |                  |L|00 (Not Specified)                      |
-           |         | |AR-DO |T|E3                | |                                        |
-           |         | |      |L|03                | |                                        |
-           |         | |      |V|APDU-AR-DO        |T|D0                                      |
-           |         | |      | |                  |L|01                                      |
-           |         | |      | |                  |V|01 (Always)                             |
-        */
-        (byte) 0xE2, (byte) 0x0B, (byte) 0xE1, (byte) 0x04, (byte) 0x4F, (byte) 0x00,
-        (byte) 0xC1, (byte) 0x00, (byte) 0xE3, (byte) 0x03, (byte) 0xD0, (byte) 0x01,
-        (byte) 0x01,
+    // STORE DATA is accepted only in a secure channel session with C-MAC.
+    private static final byte SECURITY_LEVEL_STORE_DATA =
+            (byte) (SecureChannel.AUTHENTICATED | SecureChannel.C_MAC);
 
-        /*
-           REF-AR-DOs for the specific applets.
-           Accesses from those applets are basically prohibited.
-
-           |REF-AR-DO|T|E2    | |                  | |                                        |
-           |         |L|1B    | |                  | |                                        |
-           |         |V|REF-DO|T|E1                | |                                        |
-           |         | |      |L|14                | |                                        |
-           |         | |      |V|AID-REF-DO        |T|4F                                      |
-           |         | |      | |                  |L|10                                      |
-           |         | |      | |                  |V|A000000476416E64726F696443545340        |
-           |         | |      | |DeviceAppID-REF-DO|T|C1                                      |
-           |         | |      | |                  |L|00 (Not Specified)                      |
-           |         | |AR-DO |T|E3                | |                                        |
-           |         | |      |L|03                | |                                        |
-           |         | |      |V|APDU-AR-DO        |T|D0                                      |
-           |         | |      | |                  |L|01                                      |
-           |         | |      | |                  |V|00 (Never)                              |
-           |REF-AR-DO|T|E2    | |                  | |                                        |
-           |         |L|1B    | |                  | |                                        |
-           |         |V|REF-DO|T|E1                | |                                        |
-           |         | |      |L|14                | |                                        |
-           |         | |      |V|AID-REF-DO        |T|4F                                      |
-           |         | |      | |                  |L|10                                      |
-           |         | |      | |                  |V|A000000476416E64726F696443545341        |
-           |         | |      | |DeviceAppID-REF-DO|T|C1                                      |
-           |         | |      | |                  |L|00 (Not Specified)                      |
-           |         | |AR-DO |T|E3                | |                                        |
-           |         | |      |L|03                | |                                        |
-           |         | |      |V|APDU-AR-DO        |T|D0                                      |
-           |         | |      | |                  |L|01                                      |
-           |         | |      | |                  |V|00 (Never)                              |
-           |REF-AR-DO|T|E2    | |                  | |                                        |
-           |         |L|1B    | |                  | |                                        |
-           |         |V|REF-DO|T|E1                | |                                        |
-           |         | |      |L|14                | |                                        |
-           |         | |      |V|AID-REF-DO        |T|4F                                      |
-           |         | |      | |                  |L|10                                      |
-           |         | |      | |                  |V|A000000476416E64726F696443545342        |
-           |         | |      | |DeviceAppID-REF-DO|T|C1                                      |
-           |         | |      | |                  |L|00 (Not Specified)                      |
-           |         | |AR-DO |T|E3                | |                                        |
-           |         | |      |L|03                | |                                        |
-           |         | |      |V|APDU-AR-DO        |T|D0                                      |
-           |         | |      | |                  |L|01                                      |
-           |         | |      | |                  |V|00 (Never)                              |
-           |REF-AR-DO|T|E2    | |                  | |                                        |
-           |         |L|1B    | |                  | |                                        |
-           |         |V|REF-DO|T|E1                | |                                        |
-           |         | |      |L|14                | |                                        |
-           |         | |      |V|AID-REF-DO        |T|4F                                      |
-           |         | |      | |                  |L|10                                      |
-           |         | |      | |                  |V|A000000476416E64726F696443545343        |
-           |         | |      | |DeviceAppID-REF-DO|T|C1                                      |
-           |         | |      | |                  |L|00 (Not Specified)                      |
-           |         | |AR-DO |T|E3                | |                                        |
-           |         | |      |L|03                | |                                        |
-           |         | |      |V|APDU-AR-DO        |T|D0                                      |
-           |         | |      | |                  |L|01                                      |
-           |         | |      | |                  |V|00 (Never)                              |
-           |REF-AR-DO|T|E2    | |                  | |                                        |
-           |         |L|1B    | |                  | |                                        |
-           |         |V|REF-DO|T|E1                | |                                        |
-           |         | |      |L|14                | |                                        |
-           |         | |      |V|AID-REF-DO        |T|4F                                      |
-           |         | |      | |                  |L|10                                      |
-           |         | |      | |                  |V|A000000476416E64726F696443545344        |
-           |         | |      | |DeviceAppID-REF-DO|T|C1                                      |
-           |         | |      | |                  |L|00 (Not Specified)                      |
-           |         | |AR-DO |T|E3                | |                                        |
-           |         | |      |L|03                | |                                        |
-           |         | |      |V|APDU-AR-DO        |T|D0                                      |
-           |         | |      | |                  |L|01                                      |
-           |         | |      | |                  |V|00 (Never)                              |
-           |REF-AR-DO|T|E2    | |                  | |                                        |
-           |         |L|1B    | |                  | |                                        |
-           |         |V|REF-DO|T|E1                | |                                        |
-           |         | |      |L|14                | |                                        |
-           |         | |      |V|AID-REF-DO        |T|4F                                      |
-           |         | |      | |                  |L|10                                      |
-           |         | |      | |                  |V|A000000476416E64726F696443545345        |
-           |         | |      | |DeviceAppID-REF-DO|T|C1                                      |
-           |         | |      | |                  |L|00 (Not Specified)                      |
-           |         | |AR-DO |T|E3                | |                                        |
-           |         | |      |L|03                | |                                        |
-           |         | |      |V|APDU-AR-DO        |T|D0                                      |
-           |         | |      | |                  |L|01                                      |
-           |         | |      | |                  |V|00 (Never)                              |
-           |REF-AR-DO|T|E2    | |                  | |                                        |
-           |         |L|1B    | |                  | |                                        |
-           |         |V|REF-DO|T|E1                | |                                        |
-           |         | |      |L|14                | |                                        |
-           |         | |      |V|AID-REF-DO        |T|4F                                      |
-           |         | |      | |                  |L|10                                      |
-           |         | |      | |                  |V|A000000476416E64726F696443545346        |
-           |         | |      | |DeviceAppID-REF-DO|T|C1                                      |
-           |         | |      | |                  |L|00 (Not Specified)                      |
-           |         | |AR-DO |T|E3                | |                                        |
-           |         | |      |L|03                | |                                        |
-           |         | |      |V|APDU-AR-DO        |T|D0                                      |
-           |         | |      | |                  |L|01                                      |
-           |         | |      | |                  |V|00 (Never)                              |
-           |REF-AR-DO|T|E2    | |                  | |                                        |
-           |         |L|1B    | |                  | |                                        |
-           |         |V|REF-DO|T|E1                | |                                        |
-           |         | |      |L|14                | |                                        |
-           |         | |      |V|AID-REF-DO        |T|4F                                      |
-           |         | |      | |                  |L|10                                      |
-           |         | |      | |                  |V|A000000476416E64726F696443545347        |
-           |         | |      | |DeviceAppID-REF-DO|T|C1                                      |
-           |         | |      | |                  |L|00 (Not Specified)                      |
-           |         | |AR-DO |T|E3                | |                                        |
-           |         | |      |L|03                | |                                        |
-           |         | |      |V|APDU-AR-DO        |T|D0                                      |
-           |         | |      | |                  |L|01                                      |
-           |         | |      | |                  |V|00 (Never)                              |
-           |REF-AR-DO|T|E2    | |                  | |                                        |
-           |         |L|1B    | |                  | |                                        |
-           |         |V|REF-DO|T|E1                | |                                        |
-           |         | |      |L|14                | |                                        |
-           |         | |      |V|AID-REF-DO        |T|4F                                      |
-           |         | |      | |                  |L|10                                      |
-           |         | |      | |                  |V|A000000476416E64726F696443545348        |
-           |         | |      | |DeviceAppID-REF-DO|T|C1                                      |
-           |         | |      | |                  |L|00 (Not Specified)                      |
-           |         | |AR-DO |T|E3                | |                                        |
-           |         | |      |L|03                | |                                        |
-           |         | |      |V|APDU-AR-DO        |T|D0                                      |
-           |         | |      | |                  |L|01                                      |
-           |         | |      | |                  |V|00 (Never)                              |
-           |REF-AR-DO|T|E2    | |                  | |                                        |
-           |         |L|1B    | |                  | |                                        |
-           |         |V|REF-DO|T|E1                | |                                        |
-           |         | |      |L|14                | |                                        |
-           |         | |      |V|AID-REF-DO        |T|4F                                      |
-           |         | |      | |                  |L|10                                      |
-           |         | |      | |                  |V|A000000476416E64726F696443545349        |
-           |         | |      | |DeviceAppID-REF-DO|T|C1                                      |
-           |         | |      | |                  |L|00 (Not Specified)                      |
-           |         | |AR-DO |T|E3                | |                                        |
-           |         | |      |L|03                | |                                        |
-           |         | |      |V|APDU-AR-DO        |T|D0                                      |
-           |         | |      | |                  |L|01                                      |
-           |         | |      | |                  |V|00 (Never)                              |
-           |REF-AR-DO|T|E2    | |                  | |                                        |
-           |         |L|1B    | |                  | |                                        |
-           |         |V|REF-DO|T|E1                | |                                        |
-           |         | |      |L|14                | |                                        |
-           |         | |      |V|AID-REF-DO        |T|4F                                      |
-           |         | |      | |                  |L|10                                      |
-           |         | |      | |                  |V|A000000476416E64726F69644354534A        |
-           |         | |      | |DeviceAppID-REF-DO|T|C1                                      |
-           |         | |      | |                  |L|00 (Not Specified)                      |
-           |         | |AR-DO |T|E3                | |                                        |
-           |         | |      |L|03                | |                                        |
-           |         | |      |V|APDU-AR-DO        |T|D0                                      |
-           |         | |      | |                  |L|01                                      |
-           |         | |      | |                  |V|00 (Never)                              |
-           |REF-AR-DO|T|E2    | |                  | |                                        |
-           |         |L|1B    | |                  | |                                        |
-           |         |V|REF-DO|T|E1                | |                                        |
-           |         | |      |L|14                | |                                        |
-           |         | |      |V|AID-REF-DO        |T|4F                                      |
-           |         | |      | |                  |L|10                                      |
-           |         | |      | |                  |V|A000000476416E64726F69644354534B        |
-           |         | |      | |DeviceAppID-REF-DO|T|C1                                      |
-           |         | |      | |                  |L|00 (Not Specified)                      |
-           |         | |AR-DO |T|E3                | |                                        |
-           |         | |      |L|03                | |                                        |
-           |         | |      |V|APDU-AR-DO        |T|D0                                      |
-           |         | |      | |                  |L|01                                      |
-           |         | |      | |                  |V|00 (Never)                              |
-           |REF-AR-DO|T|E2    | |                  | |                                        |
-           |         |L|1B    | |                  | |                                        |
-           |         |V|REF-DO|T|E1                | |                                        |
-           |         | |      |L|14                | |                                        |
-           |         | |      |V|AID-REF-DO        |T|4F                                      |
-           |         | |      | |                  |L|10                                      |
-           |         | |      | |                  |V|A000000476416E64726F69644354534C        |
-           |         | |      | |DeviceAppID-REF-DO|T|C1                                      |
-           |         | |      | |                  |L|00 (Not Specified)                      |
-           |         | |AR-DO |T|E3                | |                                        |
-           |         | |      |L|03                | |                                        |
-           |         | |      |V|APDU-AR-DO        |T|D0                                      |
-           |         | |      | |                  |L|01                                      |
-           |         | |      | |                  |V|00 (Never)                              |
-           |REF-AR-DO|T|E2    | |                  | |                                        |
-           |         |L|1B    | |                  | |                                        |
-           |         |V|REF-DO|T|E1                | |                                        |
-           |         | |      |L|14                | |                                        |
-           |         | |      |V|AID-REF-DO        |T|4F                                      |
-           |         | |      | |                  |L|10                                      |
-           |         | |      | |                  |V|A000000476416E64726F69644354534D        |
-           |         | |      | |DeviceAppID-REF-DO|T|C1                                      |
-           |         | |      | |                  |L|00 (Not Specified)                      |
-           |         | |AR-DO |T|E3                | |                                        |
-           |         | |      |L|03                | |                                        |
-           |         | |      |V|APDU-AR-DO        |T|D0                                      |
-           |         | |      | |                  |L|01                                      |
-           |         | |      | |                  |V|00 (Never)                              |
-           |REF-AR-DO|T|E2    | |                  | |                                        |
-           |         |L|1B    | |                  | |                                        |
-           |         |V|REF-DO|T|E1                | |                                        |
-           |         | |      |L|14                | |                                        |
-           |         | |      |V|AID-REF-DO        |T|4F                                      |
-           |         | |      | |                  |L|10                                      |
-           |         | |      | |                  |V|A000000476416E64726F69644354534E        |
-           |         | |      | |DeviceAppID-REF-DO|T|C1                                      |
-           |         | |      | |                  |L|00 (Not Specified)                      |
-           |         | |AR-DO |T|E3                | |                                        |
-           |         | |      |L|03                | |                                        |
-           |         | |      |V|APDU-AR-DO        |T|D0                                      |
-           |         | |      | |                  |L|01                                      |
-           |         | |      | |                  |V|00 (Never)                              |
-           |REF-AR-DO|T|E2    | |                  | |                                        |
-           |         |L|1B    | |                  | |                                        |
-           |         |V|REF-DO|T|E1                | |                                        |
-           |         | |      |L|14                | |                                        |
-           |         | |      |V|AID-REF-DO        |T|4F                                      |
-           |         | |      | |                  |L|10                                      |
-           |         | |      | |                  |V|A000000476416E64726F69644354534F        |
-           |         | |      | |DeviceAppID-REF-DO|T|C1                                      |
-           |         | |      | |                  |L|00 (Not Specified)                      |
-           |         | |AR-DO |T|E3                | |                                        |
-           |         | |      |L|03                | |                                        |
-           |         | |      |V|APDU-AR-DO        |T|D0                                      |
-           |         | |      | |                  |L|01                                      |
-           |         | |      | |                  |V|00 (Never)                              |
-        */
-        (byte) 0xE2, (byte) 0x1B, (byte) 0xE1, (byte) 0x14, (byte) 0x4F, (byte) 0x10,
-        (byte) 0xA0, (byte) 0x00, (byte) 0x00, (byte) 0x04, (byte) 0x76, (byte) 0x41,
-        (byte) 0x6E, (byte) 0x64, (byte) 0x72, (byte) 0x6F, (byte) 0x69, (byte) 0x64,
-        (byte) 0x43, (byte) 0x54, (byte) 0x53, (byte) 0x40, (byte) 0xC1, (byte) 0x00,
-        (byte) 0xE3, (byte) 0x03, (byte) 0xD0, (byte) 0x01, (byte) 0x00,
-        (byte) 0xE2, (byte) 0x1B, (byte) 0xE1, (byte) 0x14, (byte) 0x4F, (byte) 0x10,
-        (byte) 0xA0, (byte) 0x00, (byte) 0x00, (byte) 0x04, (byte) 0x76, (byte) 0x41,
-        (byte) 0x6E, (byte) 0x64, (byte) 0x72, (byte) 0x6F, (byte) 0x69, (byte) 0x64,
-        (byte) 0x43, (byte) 0x54, (byte) 0x53, (byte) 0x41, (byte) 0xC1, (byte) 0x00,
-        (byte) 0xE3, (byte) 0x03, (byte) 0xD0, (byte) 0x01, (byte) 0x00,
-        (byte) 0xE2, (byte) 0x1B, (byte) 0xE1, (byte) 0x14, (byte) 0x4F, (byte) 0x10,
-        (byte) 0xA0, (byte) 0x00, (byte) 0x00, (byte) 0x04, (byte) 0x76, (byte) 0x41,
-        (byte) 0x6E, (byte) 0x64, (byte) 0x72, (byte) 0x6F, (byte) 0x69, (byte) 0x64,
-        (byte) 0x43, (byte) 0x54, (byte) 0x53, (byte) 0x42, (byte) 0xC1, (byte) 0x00,
-        (byte) 0xE3, (byte) 0x03, (byte) 0xD0, (byte) 0x01, (byte) 0x00,
-        (byte) 0xE2, (byte) 0x1B, (byte) 0xE1, (byte) 0x14, (byte) 0x4F, (byte) 0x10,
-        (byte) 0xA0, (byte) 0x00, (byte) 0x00, (byte) 0x04, (byte) 0x76, (byte) 0x41,
-        (byte) 0x6E, (byte) 0x64, (byte) 0x72, (byte) 0x6F, (byte) 0x69, (byte) 0x64,
-        (byte) 0x43, (byte) 0x54, (byte) 0x53, (byte) 0x43, (byte) 0xC1, (byte) 0x00,
-        (byte) 0xE3, (byte) 0x03, (byte) 0xD0, (byte) 0x01, (byte) 0x00,
-        (byte) 0xE2, (byte) 0x1B, (byte) 0xE1, (byte) 0x14, (byte) 0x4F, (byte) 0x10,
-        (byte) 0xA0, (byte) 0x00, (byte) 0x00, (byte) 0x04, (byte) 0x76, (byte) 0x41,
-        (byte) 0x6E, (byte) 0x64, (byte) 0x72, (byte) 0x6F, (byte) 0x69, (byte) 0x64,
-        (byte) 0x43, (byte) 0x54, (byte) 0x53, (byte) 0x44, (byte) 0xC1, (byte) 0x00,
-        (byte) 0xE3, (byte) 0x03, (byte) 0xD0, (byte) 0x01, (byte) 0x00,
-        (byte) 0xE2, (byte) 0x1B, (byte) 0xE1, (byte) 0x14, (byte) 0x4F, (byte) 0x10,
-        (byte) 0xA0, (byte) 0x00, (byte) 0x00, (byte) 0x04, (byte) 0x76, (byte) 0x41,
-        (byte) 0x6E, (byte) 0x64, (byte) 0x72, (byte) 0x6F, (byte) 0x69, (byte) 0x64,
-        (byte) 0x43, (byte) 0x54, (byte) 0x53, (byte) 0x45, (byte) 0xC1, (byte) 0x00,
-        (byte) 0xE3, (byte) 0x03, (byte) 0xD0, (byte) 0x01, (byte) 0x00,
-        (byte) 0xE2, (byte) 0x1B, (byte) 0xE1, (byte) 0x14, (byte) 0x4F, (byte) 0x10,
-        (byte) 0xA0, (byte) 0x00, (byte) 0x00, (byte) 0x04, (byte) 0x76, (byte) 0x41,
-        (byte) 0x6E, (byte) 0x64, (byte) 0x72, (byte) 0x6F, (byte) 0x69, (byte) 0x64,
-        (byte) 0x43, (byte) 0x54, (byte) 0x53, (byte) 0x46, (byte) 0xC1, (byte) 0x00,
-        (byte) 0xE3, (byte) 0x03, (byte) 0xD0, (byte) 0x01, (byte) 0x00,
-        (byte) 0xE2, (byte) 0x1B, (byte) 0xE1, (byte) 0x14, (byte) 0x4F, (byte) 0x10,
-        (byte) 0xA0, (byte) 0x00, (byte) 0x00, (byte) 0x04, (byte) 0x76, (byte) 0x41,
-        (byte) 0x6E, (byte) 0x64, (byte) 0x72, (byte) 0x6F, (byte) 0x69, (byte) 0x64,
-        (byte) 0x43, (byte) 0x54, (byte) 0x53, (byte) 0x47, (byte) 0xC1, (byte) 0x00,
-        (byte) 0xE3, (byte) 0x03, (byte) 0xD0, (byte) 0x01, (byte) 0x00,
-        (byte) 0xE2, (byte) 0x1B, (byte) 0xE1, (byte) 0x14, (byte) 0x4F, (byte) 0x10,
-        (byte) 0xA0, (byte) 0x00, (byte) 0x00, (byte) 0x04, (byte) 0x76, (byte) 0x41,
-        (byte) 0x6E, (byte) 0x64, (byte) 0x72, (byte) 0x6F, (byte) 0x69, (byte) 0x64,
-        (byte) 0x43, (byte) 0x54, (byte) 0x53, (byte) 0x48, (byte) 0xC1, (byte) 0x00,
-        (byte) 0xE3, (byte) 0x03, (byte) 0xD0, (byte) 0x01, (byte) 0x00,
-        (byte) 0xE2, (byte) 0x1B, (byte) 0xE1, (byte) 0x14, (byte) 0x4F, (byte) 0x10,
-        (byte) 0xA0, (byte) 0x00, (byte) 0x00, (byte) 0x04, (byte) 0x76, (byte) 0x41,
-        (byte) 0x6E, (byte) 0x64, (byte) 0x72, (byte) 0x6F, (byte) 0x69, (byte) 0x64,
-        (byte) 0x43, (byte) 0x54, (byte) 0x53, (byte) 0x49, (byte) 0xC1, (byte) 0x00,
-        (byte) 0xE3, (byte) 0x03, (byte) 0xD0, (byte) 0x01, (byte) 0x00,
-        (byte) 0xE2, (byte) 0x1B, (byte) 0xE1, (byte) 0x14, (byte) 0x4F, (byte) 0x10,
-        (byte) 0xA0, (byte) 0x00, (byte) 0x00, (byte) 0x04, (byte) 0x76, (byte) 0x41,
-        (byte) 0x6E, (byte) 0x64, (byte) 0x72, (byte) 0x6F, (byte) 0x69, (byte) 0x64,
-        (byte) 0x43, (byte) 0x54, (byte) 0x53, (byte) 0x4A, (byte) 0xC1, (byte) 0x00,
-        (byte) 0xE3, (byte) 0x03, (byte) 0xD0, (byte) 0x01, (byte) 0x00,
-        (byte) 0xE2, (byte) 0x1B, (byte) 0xE1, (byte) 0x14, (byte) 0x4F, (byte) 0x10,
-        (byte) 0xA0, (byte) 0x00, (byte) 0x00, (byte) 0x04, (byte) 0x76, (byte) 0x41,
-        (byte) 0x6E, (byte) 0x64, (byte) 0x72, (byte) 0x6F, (byte) 0x69, (byte) 0x64,
-        (byte) 0x43, (byte) 0x54, (byte) 0x53, (byte) 0x4B, (byte) 0xC1, (byte) 0x00,
-        (byte) 0xE3, (byte) 0x03, (byte) 0xD0, (byte) 0x01, (byte) 0x00,
-        (byte) 0xE2, (byte) 0x1B, (byte) 0xE1, (byte) 0x14, (byte) 0x4F, (byte) 0x10,
-        (byte) 0xA0, (byte) 0x00, (byte) 0x00, (byte) 0x04, (byte) 0x76, (byte) 0x41,
-        (byte) 0x6E, (byte) 0x64, (byte) 0x72, (byte) 0x6F, (byte) 0x69, (byte) 0x64,
-        (byte) 0x43, (byte) 0x54, (byte) 0x53, (byte) 0x4C, (byte) 0xC1, (byte) 0x00,
-        (byte) 0xE3, (byte) 0x03, (byte) 0xD0, (byte) 0x01, (byte) 0x00,
-        (byte) 0xE2, (byte) 0x1B, (byte) 0xE1, (byte) 0x14, (byte) 0x4F, (byte) 0x10,
-        (byte) 0xA0, (byte) 0x00, (byte) 0x00, (byte) 0x04, (byte) 0x76, (byte) 0x41,
-        (byte) 0x6E, (byte) 0x64, (byte) 0x72, (byte) 0x6F, (byte) 0x69, (byte) 0x64,
-        (byte) 0x43, (byte) 0x54, (byte) 0x53, (byte) 0x4D, (byte) 0xC1, (byte) 0x00,
-        (byte) 0xE3, (byte) 0x03, (byte) 0xD0, (byte) 0x01, (byte) 0x00,
-        (byte) 0xE2, (byte) 0x1B, (byte) 0xE1, (byte) 0x14, (byte) 0x4F, (byte) 0x10,
-        (byte) 0xA0, (byte) 0x00, (byte) 0x00, (byte) 0x04, (byte) 0x76, (byte) 0x41,
-        (byte) 0x6E, (byte) 0x64, (byte) 0x72, (byte) 0x6F, (byte) 0x69, (byte) 0x64,
-        (byte) 0x43, (byte) 0x54, (byte) 0x53, (byte) 0x4E, (byte) 0xC1, (byte) 0x00,
-        (byte) 0xE3, (byte) 0x03, (byte) 0xD0, (byte) 0x01, (byte) 0x00,
-        (byte) 0xE2, (byte) 0x1B, (byte) 0xE1, (byte) 0x14, (byte) 0x4F, (byte) 0x10,
-        (byte) 0xA0, (byte) 0x00, (byte) 0x00, (byte) 0x04, (byte) 0x76, (byte) 0x41,
-        (byte) 0x6E, (byte) 0x64, (byte) 0x72, (byte) 0x6F, (byte) 0x69, (byte) 0x64,
-        (byte) 0x43, (byte) 0x54, (byte) 0x53, (byte) 0x4F, (byte) 0xC1, (byte) 0x00,
-        (byte) 0xE3, (byte) 0x03, (byte) 0xD0, (byte) 0x01, (byte) 0x00,
+    // P1 of STORE DATA indicating the last block. P2 is the number of the block.
+    private static final byte STORE_DATA_LAST_BLOCK = (byte) 0x80;
 
-        /*
-           REF-AR-DOs with the specific APDU fileters for CtsSecureElementAccessControlTestCases1.
-
-           |REF-AR-DO|T|E2    | |                  | |                                        |
-           |         |L|3E    | |                  | |                                        |
-           |         |V|REF-DO|T|E1                | |                                        |
-           |         | |      |L|28                | |                                        |
-           |         | |      |V|AID-REF-DO        |T|4F                                      |
-           |         | |      | |                  |L|10                                      |
-           |         | |      | |                  |V|A000000476416E64726F696443545340        |
-           |         | |      | |DeviceAppID-REF-DO|T|C1                                      |
-           |         | |      | |                  |L|14                                      |
-           |         | |      | |                  |V|4BBE31BEB2F753CFE71EC6BF112548687BB6C34E|
-           |         | |AR-DO |T|E3                | |                                        |
-           |         | |      |L|12                | |                                        |
-           |         | |      |V|APDU-AR-DO        |T|D0                                      |
-           |         | |      | |                  |L|10                                      |
-           |         | |      | |                  |V|00060000 / FFFF0000                     |
-           |         | |      | |                  | |A0060000 / FFFF0000                     |
-           |REF-AR-DO|T|E2    | |                  | |                                        |
-           |         |L|36    | |                  | |                                        |
-           |         |V|REF-DO|T|E1                | |                                        |
-           |         | |      |L|28                | |                                        |
-           |         | |      |V|AID-REF-DO        |T|4F                                      |
-           |         | |      | |                  |L|10                                      |
-           |         | |      | |                  |V|A000000476416E64726F696443545341        |
-           |         | |      | |DeviceAppID-REF-DO|T|C1                                      |
-           |         | |      | |                  |L|14                                      |
-           |         | |      | |                  |V|4BBE31BEB2F753CFE71EC6BF112548687BB6C34E|
-           |         | |AR-DO |T|E3                | |                                        |
-           |         | |      |L|0A                | |                                        |
-           |         | |      |V|APDU-AR-DO        |T|D0                                      |
-           |         | |      | |                  |L|08                                      |
-           |         | |      | |                  |V|94000000 / FF000000                     |
-           |REF-AR-DO|T|E2    | |                  | |                                        |
-           |         |L|2F    | |                  | |                                        |
-           |         |V|REF-DO|T|E1                | |                                        |
-           |         | |      |L|28                | |                                        |
-           |         | |      |V|AID-REF-DO        |T|4F                                      |
-           |         | |      | |                  |L|10                                      |
-           |         | |      | |                  |V|A000000476416E64726F696443545342        |
-           |         | |      | |DeviceAppID-REF-DO|T|C1                                      |
-           |         | |      | |                  |L|14                                      |
-           |         | |      | |                  |V|4BBE31BEB2F753CFE71EC6BF112548687BB6C34E|
-           |         | |AR-DO |T|E3                | |                                        |
-           |         | |      |L|03                | |                                        |
-           |         | |      |V|APDU-AR-DO        |T|D0                                      |
-           |         | |      | |                  |L|01                                      |
-           |         | |      | |                  |V|01 (Always)                             |
-           |REF-AR-DO|T|E2    | |                  | |                                        |
-           |         |L|2F    | |                  | |                                        |
-           |         |V|REF-DO|T|E1                | |                                        |
-           |         | |      |L|28                | |                                        |
-           |         | |      |V|AID-REF-DO        |T|4F                                      |
-           |         | |      | |                  |L|10                                      |
-           |         | |      | |                  |V|A000000476416E64726F696443545344        |
-           |         | |      | |DeviceAppID-REF-DO|T|C1                                      |
-           |         | |      | |                  |L|14                                      |
-           |         | |      | |                  |V|4BBE31BEB2F753CFE71EC6BF112548687BB6C34E|
-           |         | |AR-DO |T|E3                | |                                        |
-           |         | |      |L|03                | |                                        |
-           |         | |      |V|APDU-AR-DO        |T|D0                                      |
-           |         | |      | |                  |L|01                                      |
-           |         | |      | |                  |V|01 (Always)                             |
-           |REF-AR-DO|T|E2    | |                  | |                                        |
-           |         |L|2F    | |                  | |                                        |
-           |         |V|REF-DO|T|E1                | |                                        |
-           |         | |      |L|28                | |                                        |
-           |         | |      |V|AID-REF-DO        |T|4F                                      |
-           |         | |      | |                  |L|10                                      |
-           |         | |      | |                  |V|A000000476416E64726F696443545345        |
-           |         | |      | |DeviceAppID-REF-DO|T|C1                                      |
-           |         | |      | |                  |L|14                                      |
-           |         | |      | |                  |V|4BBE31BEB2F753CFE71EC6BF112548687BB6C34E|
-           |         | |AR-DO |T|E3                | |                                        |
-           |         | |      |L|03                | |                                        |
-           |         | |      |V|APDU-AR-DO        |T|D0                                      |
-           |         | |      | |                  |L|01                                      |
-           |         | |      | |                  |V|01 (Always)                             |
-           |REF-AR-DO|T|E2    | |                  | |                                        |
-           |         |L|2F    | |                  | |                                        |
-           |         |V|REF-DO|T|E1                | |                                        |
-           |         | |      |L|28                | |                                        |
-           |         | |      |V|AID-REF-DO        |T|4F                                      |
-           |         | |      | |                  |L|10                                      |
-           |         | |      | |                  |V|A000000476416E64726F696443545347        |
-           |         | |      | |DeviceAppID-REF-DO|T|C1                                      |
-           |         | |      | |                  |L|14                                      |
-           |         | |      | |                  |V|4BBE31BEB2F753CFE71EC6BF112548687BB6C34E|
-           |         | |AR-DO |T|E3                | |                                        |
-           |         | |      |L|03                | |                                        |
-           |         | |      |V|APDU-AR-DO        |T|D0                                      |
-           |         | |      | |                  |L|01                                      |
-           |         | |      | |                  |V|01 (Always)                             |
-           |REF-AR-DO|T|E2    | |                  | |                                        |
-           |         |L|2F    | |                  | |                                        |
-           |         |V|REF-DO|T|E1                | |                                        |
-           |         | |      |L|28                | |                                        |
-           |         | |      |V|AID-REF-DO        |T|4F                                      |
-           |         | |      | |                  |L|10                                      |
-           |         | |      | |                  |V|A000000476416E64726F696443545348        |
-           |         | |      | |DeviceAppID-REF-DO|T|C1                                      |
-           |         | |      | |                  |L|14                                      |
-           |         | |      | |                  |V|4BBE31BEB2F753CFE71EC6BF112548687BB6C34E|
-           |         | |AR-DO |T|E3                | |                                        |
-           |         | |      |L|03                | |                                        |
-           |         | |      |V|APDU-AR-DO        |T|D0                                      |
-           |         | |      | |                  |L|01                                      |
-           |         | |      | |                  |V|01 (Always)                             |
-           |REF-AR-DO|T|E2    | |                  | |                                        |
-           |         |L|2F    | |                  | |                                        |
-           |         |V|REF-DO|T|E1                | |                                        |
-           |         | |      |L|28                | |                                        |
-           |         | |      |V|AID-REF-DO        |T|4F                                      |
-           |         | |      | |                  |L|10                                      |
-           |         | |      | |                  |V|A000000476416E64726F696443545349        |
-           |         | |      | |DeviceAppID-REF-DO|T|C1                                      |
-           |         | |      | |                  |L|14                                      |
-           |         | |      | |                  |V|4BBE31BEB2F753CFE71EC6BF112548687BB6C34E|
-           |         | |AR-DO |T|E3                | |                                        |
-           |         | |      |L|03                | |                                        |
-           |         | |      |V|APDU-AR-DO        |T|D0                                      |
-           |         | |      | |                  |L|01                                      |
-           |         | |      | |                  |V|01 (Always)                             |
-           |REF-AR-DO|T|E2    | |                  | |                                        |
-           |         |L|2F    | |                  | |                                        |
-           |         |V|REF-DO|T|E1                | |                                        |
-           |         | |      |L|28                | |                                        |
-           |         | |      |V|AID-REF-DO        |T|4F                                      |
-           |         | |      | |                  |L|10                                      |
-           |         | |      | |                  |V|A000000476416E64726F69644354534A        |
-           |         | |      | |DeviceAppID-REF-DO|T|C1                                      |
-           |         | |      | |                  |L|14                                      |
-           |         | |      | |                  |V|4BBE31BEB2F753CFE71EC6BF112548687BB6C34E|
-           |         | |AR-DO |T|E3                | |                                        |
-           |         | |      |L|03                | |                                        |
-           |         | |      |V|APDU-AR-DO        |T|D0                                      |
-           |         | |      | |                  |L|01                                      |
-           |         | |      | |                  |V|01 (Always)                             |
-           |REF-AR-DO|T|E2    | |                  | |                                        |
-           |         |L|2F    | |                  | |                                        |
-           |         |V|REF-DO|T|E1                | |                                        |
-           |         | |      |L|28                | |                                        |
-           |         | |      |V|AID-REF-DO        |T|4F                                      |
-           |         | |      | |                  |L|10                                      |
-           |         | |      | |                  |V|A000000476416E64726F69644354534B        |
-           |         | |      | |DeviceAppID-REF-DO|T|C1                                      |
-           |         | |      | |                  |L|14                                      |
-           |         | |      | |                  |V|4BBE31BEB2F753CFE71EC6BF112548687BB6C34E|
-           |         | |AR-DO |T|E3                | |                                        |
-           |         | |      |L|03                | |                                        |
-           |         | |      |V|APDU-AR-DO        |T|D0                                      |
-           |         | |      | |                  |L|01                                      |
-           |         | |      | |                  |V|01 (Always)                             |
-           |REF-AR-DO|T|E2    | |                  | |                                        |
-           |         |L|2F    | |                  | |                                        |
-           |         |V|REF-DO|T|E1                | |                                        |
-           |         | |      |L|28                | |                                        |
-           |         | |      |V|AID-REF-DO        |T|4F                                      |
-           |         | |      | |                  |L|10                                      |
-           |         | |      | |                  |V|A000000476416E64726F69644354534C        |
-           |         | |      | |DeviceAppID-REF-DO|T|C1                                      |
-           |         | |      | |                  |L|14                                      |
-           |         | |      | |                  |V|4BBE31BEB2F753CFE71EC6BF112548687BB6C34E|
-           |         | |AR-DO |T|E3                | |                                        |
-           |         | |      |L|03                | |                                        |
-           |         | |      |V|APDU-AR-DO        |T|D0                                      |
-           |         | |      | |                  |L|01                                      |
-           |         | |      | |                  |V|01 (Always)                             |
-           |REF-AR-DO|T|E2    | |                  | |                                        |
-           |         |L|2F    | |                  | |                                        |
-           |         |V|REF-DO|T|E1                | |                                        |
-           |         | |      |L|28                | |                                        |
-           |         | |      |V|AID-REF-DO        |T|4F                                      |
-           |         | |      | |                  |L|10                                      |
-           |         | |      | |                  |V|A000000476416E64726F69644354534D        |
-           |         | |      | |DeviceAppID-REF-DO|T|C1                                      |
-           |         | |      | |                  |L|14                                      |
-           |         | |      | |                  |V|4BBE31BEB2F753CFE71EC6BF112548687BB6C34E|
-           |         | |AR-DO |T|E3                | |                                        |
-           |         | |      |L|03                | |                                        |
-           |         | |      |V|APDU-AR-DO        |T|D0                                      |
-           |         | |      | |                  |L|01                                      |
-           |         | |      | |                  |V|01 (Always)                             |
-           |REF-AR-DO|T|E2    | |                  | |                                        |
-           |         |L|2F    | |                  | |                                        |
-           |         |V|REF-DO|T|E1                | |                                        |
-           |         | |      |L|28                | |                                        |
-           |         | |      |V|AID-REF-DO        |T|4F                                      |
-           |         | |      | |                  |L|10                                      |
-           |         | |      | |                  |V|A000000476416E64726F69644354534E        |
-           |         | |      | |DeviceAppID-REF-DO|T|C1                                      |
-           |         | |      | |                  |L|14                                      |
-           |         | |      | |                  |V|4BBE31BEB2F753CFE71EC6BF112548687BB6C34E|
-           |         | |AR-DO |T|E3                | |                                        |
-           |         | |      |L|03                | |                                        |
-           |         | |      |V|APDU-AR-DO        |T|D0                                      |
-           |         | |      | |                  |L|01                                      |
-           |         | |      | |                  |V|01 (Always)                             |
-           |REF-AR-DO|T|E2    | |                  | |                                        |
-           |         |L|2F    | |                  | |                                        |
-           |         |V|REF-DO|T|E1                | |                                        |
-           |         | |      |L|28                | |                                        |
-           |         | |      |V|AID-REF-DO        |T|4F                                      |
-           |         | |      | |                  |L|10                                      |
-           |         | |      | |                  |V|A000000476416E64726F69644354534F        |
-           |         | |      | |DeviceAppID-REF-DO|T|C1                                      |
-           |         | |      | |                  |L|14                                      |
-           |         | |      | |                  |V|4BBE31BEB2F753CFE71EC6BF112548687BB6C34E|
-           |         | |AR-DO |T|E3                | |                                        |
-           |         | |      |L|03                | |                                        |
-           |         | |      |V|APDU-AR-DO        |T|D0                                      |
-           |         | |      | |                  |L|01                                      |
-           |         | |      | |                  |V|01 (Always)                             |
-        */
-        (byte) 0xE2, (byte) 0x3E, (byte) 0xE1, (byte) 0x28, (byte) 0x4F, (byte) 0x10,
-        (byte) 0xA0, (byte) 0x00, (byte) 0x00, (byte) 0x04, (byte) 0x76, (byte) 0x41,
-        (byte) 0x6E, (byte) 0x64, (byte) 0x72, (byte) 0x6F, (byte) 0x69, (byte) 0x64,
-        (byte) 0x43, (byte) 0x54, (byte) 0x53, (byte) 0x40, (byte) 0xC1, (byte) 0x14,
-        (byte) 0x4B, (byte) 0xBE, (byte) 0x31, (byte) 0xBE, (byte) 0xB2, (byte) 0xF7,
-        (byte) 0x53, (byte) 0xCF, (byte) 0xE7, (byte) 0x1E, (byte) 0xC6, (byte) 0xBF,
-        (byte) 0x11, (byte) 0x25, (byte) 0x48, (byte) 0x68, (byte) 0x7B, (byte) 0xB6,
-        (byte) 0xC3, (byte) 0x4E, (byte) 0xE3, (byte) 0x12, (byte) 0xD0, (byte) 0x10,
-        (byte) 0x00, (byte) 0x06, (byte) 0x00, (byte) 0x00, (byte) 0xFF, (byte) 0xFF,
-        (byte) 0x00, (byte) 0x00, (byte) 0xA0, (byte) 0x06, (byte) 0x00, (byte) 0x00,
-        (byte) 0xFF, (byte) 0xFF, (byte) 0x00, (byte) 0x00,
-        (byte) 0xE2, (byte) 0x36, (byte) 0xE1, (byte) 0x28, (byte) 0x4F, (byte) 0x10,
-        (byte) 0xA0, (byte) 0x00, (byte) 0x00, (byte) 0x04, (byte) 0x76, (byte) 0x41,
-        (byte) 0x6E, (byte) 0x64, (byte) 0x72, (byte) 0x6F, (byte) 0x69, (byte) 0x64,
-        (byte) 0x43, (byte) 0x54, (byte) 0x53, (byte) 0x41, (byte) 0xC1, (byte) 0x14,
-        (byte) 0x4B, (byte) 0xBE, (byte) 0x31, (byte) 0xBE, (byte) 0xB2, (byte) 0xF7,
-        (byte) 0x53, (byte) 0xCF, (byte) 0xE7, (byte) 0x1E, (byte) 0xC6, (byte) 0xBF,
-        (byte) 0x11, (byte) 0x25, (byte) 0x48, (byte) 0x68, (byte) 0x7B, (byte) 0xB6,
-        (byte) 0xC3, (byte) 0x4E, (byte) 0xE3, (byte) 0x0A, (byte) 0xD0, (byte) 0x08,
-        (byte) 0x94, (byte) 0x00, (byte) 0x00, (byte) 0x00, (byte) 0xFF, (byte) 0x00,
-        (byte) 0x00, (byte) 0x00,
-        (byte) 0xE2, (byte) 0x2F, (byte) 0xE1, (byte) 0x28, (byte) 0x4F, (byte) 0x10,
-        (byte) 0xA0, (byte) 0x00, (byte) 0x00, (byte) 0x04, (byte) 0x76, (byte) 0x41,
-        (byte) 0x6E, (byte) 0x64, (byte) 0x72, (byte) 0x6F, (byte) 0x69, (byte) 0x64,
-        (byte) 0x43, (byte) 0x54, (byte) 0x53, (byte) 0x42, (byte) 0xC1, (byte) 0x14,
-        (byte) 0x4B, (byte) 0xBE, (byte) 0x31, (byte) 0xBE, (byte) 0xB2, (byte) 0xF7,
-        (byte) 0x53, (byte) 0xCF, (byte) 0xE7, (byte) 0x1E, (byte) 0xC6, (byte) 0xBF,
-        (byte) 0x11, (byte) 0x25, (byte) 0x48, (byte) 0x68, (byte) 0x7B, (byte) 0xB6,
-        (byte) 0xC3, (byte) 0x4E, (byte) 0xE3, (byte) 0x03, (byte) 0xD0, (byte) 0x01,
-        (byte) 0x01,
-        (byte) 0xE2, (byte) 0x2F, (byte) 0xE1, (byte) 0x28, (byte) 0x4F, (byte) 0x10,
-        (byte) 0xA0, (byte) 0x00, (byte) 0x00, (byte) 0x04, (byte) 0x76, (byte) 0x41,
-        (byte) 0x6E, (byte) 0x64, (byte) 0x72, (byte) 0x6F, (byte) 0x69, (byte) 0x64,
-        (byte) 0x43, (byte) 0x54, (byte) 0x53, (byte) 0x44, (byte) 0xC1, (byte) 0x14,
-        (byte) 0x4B, (byte) 0xBE, (byte) 0x31, (byte) 0xBE, (byte) 0xB2, (byte) 0xF7,
-        (byte) 0x53, (byte) 0xCF, (byte) 0xE7, (byte) 0x1E, (byte) 0xC6, (byte) 0xBF,
-        (byte) 0x11, (byte) 0x25, (byte) 0x48, (byte) 0x68, (byte) 0x7B, (byte) 0xB6,
-        (byte) 0xC3, (byte) 0x4E, (byte) 0xE3, (byte) 0x03, (byte) 0xD0, (byte) 0x01,
-        (byte) 0x01,
-        (byte) 0xE2, (byte) 0x2F, (byte) 0xE1, (byte) 0x28, (byte) 0x4F, (byte) 0x10,
-        (byte) 0xA0, (byte) 0x00, (byte) 0x00, (byte) 0x04, (byte) 0x76, (byte) 0x41,
-        (byte) 0x6E, (byte) 0x64, (byte) 0x72, (byte) 0x6F, (byte) 0x69, (byte) 0x64,
-        (byte) 0x43, (byte) 0x54, (byte) 0x53, (byte) 0x45, (byte) 0xC1, (byte) 0x14,
-        (byte) 0x4B, (byte) 0xBE, (byte) 0x31, (byte) 0xBE, (byte) 0xB2, (byte) 0xF7,
-        (byte) 0x53, (byte) 0xCF, (byte) 0xE7, (byte) 0x1E, (byte) 0xC6, (byte) 0xBF,
-        (byte) 0x11, (byte) 0x25, (byte) 0x48, (byte) 0x68, (byte) 0x7B, (byte) 0xB6,
-        (byte) 0xC3, (byte) 0x4E, (byte) 0xE3, (byte) 0x03, (byte) 0xD0, (byte) 0x01,
-        (byte) 0x01,
-        (byte) 0xE2, (byte) 0x2F, (byte) 0xE1, (byte) 0x28, (byte) 0x4F, (byte) 0x10,
-        (byte) 0xA0, (byte) 0x00, (byte) 0x00, (byte) 0x04, (byte) 0x76, (byte) 0x41,
-        (byte) 0x6E, (byte) 0x64, (byte) 0x72, (byte) 0x6F, (byte) 0x69, (byte) 0x64,
-        (byte) 0x43, (byte) 0x54, (byte) 0x53, (byte) 0x47, (byte) 0xC1, (byte) 0x14,
-        (byte) 0x4B, (byte) 0xBE, (byte) 0x31, (byte) 0xBE, (byte) 0xB2, (byte) 0xF7,
-        (byte) 0x53, (byte) 0xCF, (byte) 0xE7, (byte) 0x1E, (byte) 0xC6, (byte) 0xBF,
-        (byte) 0x11, (byte) 0x25, (byte) 0x48, (byte) 0x68, (byte) 0x7B, (byte) 0xB6,
-        (byte) 0xC3, (byte) 0x4E, (byte) 0xE3, (byte) 0x03, (byte) 0xD0, (byte) 0x01,
-        (byte) 0x01,
-        (byte) 0xE2, (byte) 0x2F, (byte) 0xE1, (byte) 0x28, (byte) 0x4F, (byte) 0x10,
-        (byte) 0xA0, (byte) 0x00, (byte) 0x00, (byte) 0x04, (byte) 0x76, (byte) 0x41,
-        (byte) 0x6E, (byte) 0x64, (byte) 0x72, (byte) 0x6F, (byte) 0x69, (byte) 0x64,
-        (byte) 0x43, (byte) 0x54, (byte) 0x53, (byte) 0x48, (byte) 0xC1, (byte) 0x14,
-        (byte) 0x4B, (byte) 0xBE, (byte) 0x31, (byte) 0xBE, (byte) 0xB2, (byte) 0xF7,
-        (byte) 0x53, (byte) 0xCF, (byte) 0xE7, (byte) 0x1E, (byte) 0xC6, (byte) 0xBF,
-        (byte) 0x11, (byte) 0x25, (byte) 0x48, (byte) 0x68, (byte) 0x7B, (byte) 0xB6,
-        (byte) 0xC3, (byte) 0x4E, (byte) 0xE3, (byte) 0x03, (byte) 0xD0, (byte) 0x01,
-        (byte) 0x01,
-        (byte) 0xE2, (byte) 0x2F, (byte) 0xE1, (byte) 0x28, (byte) 0x4F, (byte) 0x10,
-        (byte) 0xA0, (byte) 0x00, (byte) 0x00, (byte) 0x04, (byte) 0x76, (byte) 0x41,
-        (byte) 0x6E, (byte) 0x64, (byte) 0x72, (byte) 0x6F, (byte) 0x69, (byte) 0x64,
-        (byte) 0x43, (byte) 0x54, (byte) 0x53, (byte) 0x49, (byte) 0xC1, (byte) 0x14,
-        (byte) 0x4B, (byte) 0xBE, (byte) 0x31, (byte) 0xBE, (byte) 0xB2, (byte) 0xF7,
-        (byte) 0x53, (byte) 0xCF, (byte) 0xE7, (byte) 0x1E, (byte) 0xC6, (byte) 0xBF,
-        (byte) 0x11, (byte) 0x25, (byte) 0x48, (byte) 0x68, (byte) 0x7B, (byte) 0xB6,
-        (byte) 0xC3, (byte) 0x4E, (byte) 0xE3, (byte) 0x03, (byte) 0xD0, (byte) 0x01,
-        (byte) 0x01,
-        (byte) 0xE2, (byte) 0x2F, (byte) 0xE1, (byte) 0x28, (byte) 0x4F, (byte) 0x10,
-        (byte) 0xA0, (byte) 0x00, (byte) 0x00, (byte) 0x04, (byte) 0x76, (byte) 0x41,
-        (byte) 0x6E, (byte) 0x64, (byte) 0x72, (byte) 0x6F, (byte) 0x69, (byte) 0x64,
-        (byte) 0x43, (byte) 0x54, (byte) 0x53, (byte) 0x4A, (byte) 0xC1, (byte) 0x14,
-        (byte) 0x4B, (byte) 0xBE, (byte) 0x31, (byte) 0xBE, (byte) 0xB2, (byte) 0xF7,
-        (byte) 0x53, (byte) 0xCF, (byte) 0xE7, (byte) 0x1E, (byte) 0xC6, (byte) 0xBF,
-        (byte) 0x11, (byte) 0x25, (byte) 0x48, (byte) 0x68, (byte) 0x7B, (byte) 0xB6,
-        (byte) 0xC3, (byte) 0x4E, (byte) 0xE3, (byte) 0x03, (byte) 0xD0, (byte) 0x01,
-        (byte) 0x01,
-        (byte) 0xE2, (byte) 0x2F, (byte) 0xE1, (byte) 0x28, (byte) 0x4F, (byte) 0x10,
-        (byte) 0xA0, (byte) 0x00, (byte) 0x00, (byte) 0x04, (byte) 0x76, (byte) 0x41,
-        (byte) 0x6E, (byte) 0x64, (byte) 0x72, (byte) 0x6F, (byte) 0x69, (byte) 0x64,
-        (byte) 0x43, (byte) 0x54, (byte) 0x53, (byte) 0x4B, (byte) 0xC1, (byte) 0x14,
-        (byte) 0x4B, (byte) 0xBE, (byte) 0x31, (byte) 0xBE, (byte) 0xB2, (byte) 0xF7,
-        (byte) 0x53, (byte) 0xCF, (byte) 0xE7, (byte) 0x1E, (byte) 0xC6, (byte) 0xBF,
-        (byte) 0x11, (byte) 0x25, (byte) 0x48, (byte) 0x68, (byte) 0x7B, (byte) 0xB6,
-        (byte) 0xC3, (byte) 0x4E, (byte) 0xE3, (byte) 0x03, (byte) 0xD0, (byte) 0x01,
-        (byte) 0x01,
-        (byte) 0xE2, (byte) 0x2F, (byte) 0xE1, (byte) 0x28, (byte) 0x4F, (byte) 0x10,
-        (byte) 0xA0, (byte) 0x00, (byte) 0x00, (byte) 0x04, (byte) 0x76, (byte) 0x41,
-        (byte) 0x6E, (byte) 0x64, (byte) 0x72, (byte) 0x6F, (byte) 0x69, (byte) 0x64,
-        (byte) 0x43, (byte) 0x54, (byte) 0x53, (byte) 0x4C, (byte) 0xC1, (byte) 0x14,
-        (byte) 0x4B, (byte) 0xBE, (byte) 0x31, (byte) 0xBE, (byte) 0xB2, (byte) 0xF7,
-        (byte) 0x53, (byte) 0xCF, (byte) 0xE7, (byte) 0x1E, (byte) 0xC6, (byte) 0xBF,
-        (byte) 0x11, (byte) 0x25, (byte) 0x48, (byte) 0x68, (byte) 0x7B, (byte) 0xB6,
-        (byte) 0xC3, (byte) 0x4E, (byte) 0xE3, (byte) 0x03, (byte) 0xD0, (byte) 0x01,
-        (byte) 0x01,
-        (byte) 0xE2, (byte) 0x2F, (byte) 0xE1, (byte) 0x28, (byte) 0x4F, (byte) 0x10,
-        (byte) 0xA0, (byte) 0x00, (byte) 0x00, (byte) 0x04, (byte) 0x76, (byte) 0x41,
-        (byte) 0x6E, (byte) 0x64, (byte) 0x72, (byte) 0x6F, (byte) 0x69, (byte) 0x64,
-        (byte) 0x43, (byte) 0x54, (byte) 0x53, (byte) 0x4D, (byte) 0xC1, (byte) 0x14,
-        (byte) 0x4B, (byte) 0xBE, (byte) 0x31, (byte) 0xBE, (byte) 0xB2, (byte) 0xF7,
-        (byte) 0x53, (byte) 0xCF, (byte) 0xE7, (byte) 0x1E, (byte) 0xC6, (byte) 0xBF,
-        (byte) 0x11, (byte) 0x25, (byte) 0x48, (byte) 0x68, (byte) 0x7B, (byte) 0xB6,
-        (byte) 0xC3, (byte) 0x4E, (byte) 0xE3, (byte) 0x03, (byte) 0xD0, (byte) 0x01,
-        (byte) 0x01,
-        (byte) 0xE2, (byte) 0x2F, (byte) 0xE1, (byte) 0x28, (byte) 0x4F, (byte) 0x10,
-        (byte) 0xA0, (byte) 0x00, (byte) 0x00, (byte) 0x04, (byte) 0x76, (byte) 0x41,
-        (byte) 0x6E, (byte) 0x64, (byte) 0x72, (byte) 0x6F, (byte) 0x69, (byte) 0x64,
-        (byte) 0x43, (byte) 0x54, (byte) 0x53, (byte) 0x4E, (byte) 0xC1, (byte) 0x14,
-        (byte) 0x4B, (byte) 0xBE, (byte) 0x31, (byte) 0xBE, (byte) 0xB2, (byte) 0xF7,
-        (byte) 0x53, (byte) 0xCF, (byte) 0xE7, (byte) 0x1E, (byte) 0xC6, (byte) 0xBF,
-        (byte) 0x11, (byte) 0x25, (byte) 0x48, (byte) 0x68, (byte) 0x7B, (byte) 0xB6,
-        (byte) 0xC3, (byte) 0x4E, (byte) 0xE3, (byte) 0x03, (byte) 0xD0, (byte) 0x01,
-        (byte) 0x01,
-        (byte) 0xE2, (byte) 0x2F, (byte) 0xE1, (byte) 0x28, (byte) 0x4F, (byte) 0x10,
-        (byte) 0xA0, (byte) 0x00, (byte) 0x00, (byte) 0x04, (byte) 0x76, (byte) 0x41,
-        (byte) 0x6E, (byte) 0x64, (byte) 0x72, (byte) 0x6F, (byte) 0x69, (byte) 0x64,
-        (byte) 0x43, (byte) 0x54, (byte) 0x53, (byte) 0x4F, (byte) 0xC1, (byte) 0x14,
-        (byte) 0x4B, (byte) 0xBE, (byte) 0x31, (byte) 0xBE, (byte) 0xB2, (byte) 0xF7,
-        (byte) 0x53, (byte) 0xCF, (byte) 0xE7, (byte) 0x1E, (byte) 0xC6, (byte) 0xBF,
-        (byte) 0x11, (byte) 0x25, (byte) 0x48, (byte) 0x68, (byte) 0x7B, (byte) 0xB6,
-        (byte) 0xC3, (byte) 0x4E, (byte) 0xE3, (byte) 0x03, (byte) 0xD0, (byte) 0x01,
-        (byte) 0x01,
+    private static final short MAX_RULES           = 0x100;
+    private static final short MAX_JOURNAL_ENTRIES = 8;
+    private static final short MAX_CACHED_RULES    = 4;
+    private static final short MAX_CLIENTS         = 4;
 
-        /*
-           REF-AR-DOs with the specific APDU fileters for CtsSecureElementAccessControlTestCases2.
-
-           |REF-AR-DO|T|E2    | |                  | |                                        |
-           |         |L|3E    | |                  | |                                        |
-           |         |V|REF-DO|T|E1                | |                                        |
-           |         | |      |L|28                | |                                        |
-           |         | |      |V|AID-REF-DO        |T|4F                                      |
-           |         | |      | |                  |L|10                                      |
-           |         | |      | |                  |V|A000000476416E64726F696443545340        |
-           |         | |      | |DeviceAppID-REF-DO|T|C1                                      |
-           |         | |      | |                  |L|14                                      |
-           |         | |      | |                  |V|93B0FF2260BABD4C2A92C68AAA0039DC514D8A33|
-           |         | |AR-DO |T|E3                | |                                        |
-           |         | |      |L|12                | |                                        |
-           |         | |      |V|APDU-AR-DO        |T|D0                                      |
-           |         | |      | |                  |L|10                                      |
-           |         | |      | |                  |V|00060000 / FFFF0000                     |
-           |         | |      | |                  | |A0060000 / FFFF0000                     |
-           |REF-AR-DO|T|E2    | |                  | |                                        |
-           |         |L|36    | |                  | |                                        |
-           |         |V|REF-DO|T|E1                | |                                        |
-           |         | |      |L|28                | |                                        |
-           |         | |      |V|AID-REF-DO        |T|4F                                      |
-           |         | |      | |                  |L|10                                      |
-           |         | |      | |                  |V|A000000476416E64726F696443545341        |
-           |         | |      | |DeviceAppID-REF-DO|T|C1                                      |
-           |         | |      | |                  |L|14                                      |
-           |         | |      | |                  |V|93B0FF2260BABD4C2A92C68AAA0039DC514D8A33|
-           |         | |AR-DO |T|E3                | |                                        |
-           |         | |      |L|0A                | |                                        |
-           |         | |      |V|APDU-AR-DO        |T|D0                                      |
-           |         | |      | |                  |L|08                                      |
-           |         | |      | |                  |V|94000000 / FF000000                     |
-           |REF-AR-DO|T|E2    | |                  | |                                        |
-           |         |L|2F    | |                  | |                                        |
-           |         |V|REF-DO|T|E1                | |                                        |
-           |         | |      |L|28                | |                                        |
-           |         | |      |V|AID-REF-DO        |T|4F                                      |
-           |         | |      | |                  |L|10                                      |
-           |         | |      | |                  |V|A000000476416E64726F696443545343        |
-           |         | |      | |DeviceAppID-REF-DO|T|C1                                      |
-           |         | |      | |                  |L|14                                      |
-           |         | |      | |                  |V|93B0FF2260BABD4C2A92C68AAA0039DC514D8A33|
-           |         | |AR-DO |T|E3                | |                                        |
-           |         | |      |L|03                | |                                        |
-           |         | |      |V|APDU-AR-DO        |T|D0                                      |
-           |         | |      | |                  |L|01                                      |
-           |         | |      | |                  |V|01 (Always)                             |
-           |REF-AR-DO|T|E2    | |                  | |                                        |
-           |         |L|2F    | |                  | |                                        |
-           |         |V|REF-DO|T|E1                | |                                        |
-           |         | |      |L|28                | |                                        |
-           |         | |      |V|AID-REF-DO        |T|4F                                      |
-           |         | |      | |                  |L|10                                      |
-           |         | |      | |                  |V|A000000476416E64726F696443545345        |
-           |         | |      | |DeviceAppID-REF-DO|T|C1                                      |
-           |         | |      | |                  |L|14                                      |
-           |         | |      | |                  |V|93B0FF2260BABD4C2A92C68AAA0039DC514D8A33|
-           |         | |AR-DO |T|E3                | |                                        |
-           |         | |      |L|03                | |                                        |
-           |         | |      |V|APDU-AR-DO        |T|D0                                      |
-           |         | |      | |                  |L|01                                      |
-           |         | |      | |                  |V|01 (Always)                             |
-           |REF-AR-DO|T|E2    | |                  | |                                        |
-           |         |L|2F    | |                  | |                                        |
-           |         |V|REF-DO|T|E1                | |                                        |
-           |         | |      |L|28                | |                                        |
-           |         | |      |V|AID-REF-DO        |T|4F                                      |
-           |         | |      | |                  |L|10                                      |
-           |         | |      | |                  |V|A000000476416E64726F696443545346        |
-           |         | |      | |DeviceAppID-REF-DO|T|C1                                      |
-           |         | |      | |                  |L|14                                      |
-           |         | |      | |                  |V|93B0FF2260BABD4C2A92C68AAA0039DC514D8A33|
-           |         | |AR-DO |T|E3                | |                                        |
-           |         | |      |L|03                | |                                        |
-           |         | |      |V|APDU-AR-DO        |T|D0                                      |
-           |         | |      | |                  |L|01                                      |
-           |         | |      | |                  |V|01 (Always)                             |
-        */
-        (byte) 0xE2, (byte) 0x3E, (byte) 0xE1, (byte) 0x28, (byte) 0x4F, (byte) 0x10,
-        (byte) 0xA0, (byte) 0x00, (byte) 0x00, (byte) 0x04, (byte) 0x76, (byte) 0x41,
-        (byte) 0x6E, (byte) 0x64, (byte) 0x72, (byte) 0x6F, (byte) 0x69, (byte) 0x64,
-        (byte) 0x43, (byte) 0x54, (byte) 0x53, (byte) 0x40, (byte) 0xC1, (byte) 0x14,
-        (byte) 0x93, (byte) 0xB0, (byte) 0xFF, (byte) 0x22, (byte) 0x60, (byte) 0xBA,
-        (byte) 0xBD, (byte) 0x4C, (byte) 0x2A, (byte) 0x92, (byte) 0xC6, (byte) 0x8A,
-        (byte) 0xAA, (byte) 0x00, (byte) 0x39, (byte) 0xDC, (byte) 0x51, (byte) 0x4D,
-        (byte) 0x8A, (byte) 0x33, (byte) 0xE3, (byte) 0x12, (byte) 0xD0, (byte) 0x10,
-        (byte) 0x00, (byte) 0x06, (byte) 0x00, (byte) 0x00, (byte) 0xFF, (byte) 0xFF,
-        (byte) 0x00, (byte) 0x00, (byte) 0xA0, (byte) 0x06, (byte) 0x00, (byte) 0x00,
-        (byte) 0xFF, (byte) 0xFF, (byte) 0x00, (byte) 0x00,
-        (byte) 0xE2, (byte) 0x36, (byte) 0xE1, (byte) 0x28, (byte) 0x4F, (byte) 0x10,
-        (byte) 0xA0, (byte) 0x00, (byte) 0x00, (byte) 0x04, (byte) 0x76, (byte) 0x41,
-        (byte) 0x6E, (byte) 0x64, (byte) 0x72, (byte) 0x6F, (byte) 0x69, (byte) 0x64,
-        (byte) 0x43, (byte) 0x54, (byte) 0x53, (byte) 0x41, (byte) 0xC1, (byte) 0x14,
-        (byte) 0x93, (byte) 0xB0, (byte) 0xFF, (byte) 0x22, (byte) 0x60, (byte) 0xBA,
-        (byte) 0xBD, (byte) 0x4C, (byte) 0x2A, (byte) 0x92, (byte) 0xC6, (byte) 0x8A,
-        (byte) 0xAA, (byte) 0x00, (byte) 0x39, (byte) 0xDC, (byte) 0x51, (byte) 0x4D,
-        (byte) 0x8A, (byte) 0x33, (byte) 0xE3, (byte) 0x0A, (byte) 0xD0, (byte) 0x08,
-        (byte) 0x94, (byte) 0x00, (byte) 0x00, (byte) 0x00, (byte) 0xFF, (byte) 0x00,
-        (byte) 0x00, (byte) 0x00,
-        (byte) 0xE2, (byte) 0x2F, (byte) 0xE1, (byte) 0x28, (byte) 0x4F, (byte) 0x10,
-        (byte) 0xA0, (byte) 0x00, (byte) 0x00, (byte) 0x04, (byte) 0x76, (byte) 0x41,
-        (byte) 0x6E, (byte) 0x64, (byte) 0x72, (byte) 0x6F, (byte) 0x69, (byte) 0x64,
-        (byte) 0x43, (byte) 0x54, (byte) 0x53, (byte) 0x43, (byte) 0xC1, (byte) 0x14,
-        (byte) 0x93, (byte) 0xB0, (byte) 0xFF, (byte) 0x22, (byte) 0x60, (byte) 0xBA,
-        (byte) 0xBD, (byte) 0x4C, (byte) 0x2A, (byte) 0x92, (byte) 0xC6, (byte) 0x8A,
-        (byte) 0xAA, (byte) 0x00, (byte) 0x39, (byte) 0xDC, (byte) 0x51, (byte) 0x4D,
-        (byte) 0x8A, (byte) 0x33, (byte) 0xE3, (byte) 0x03, (byte) 0xD0, (byte) 0x01,
-        (byte) 0x01,
-        (byte) 0xE2, (byte) 0x2F, (byte) 0xE1, (byte) 0x28, (byte) 0x4F, (byte) 0x10,
-        (byte) 0xA0, (byte) 0x00, (byte) 0x00, (byte) 0x04, (byte) 0x76, (byte) 0x41,
-        (byte) 0x6E, (byte) 0x64, (byte) 0x72, (byte) 0x6F, (byte) 0x69, (byte) 0x64,
-        (byte) 0x43, (byte) 0x54, (byte) 0x53, (byte) 0x45, (byte) 0xC1, (byte) 0x14,
-        (byte) 0x93, (byte) 0xB0, (byte) 0xFF, (byte) 0x22, (byte) 0x60, (byte) 0xBA,
-        (byte) 0xBD, (byte) 0x4C, (byte) 0x2A, (byte) 0x92, (byte) 0xC6, (byte) 0x8A,
-        (byte) 0xAA, (byte) 0x00, (byte) 0x39, (byte) 0xDC, (byte) 0x51, (byte) 0x4D,
-        (byte) 0x8A, (byte) 0x33, (byte) 0xE3, (byte) 0x03, (byte) 0xD0, (byte) 0x01,
-        (byte) 0x01,
-        (byte) 0xE2, (byte) 0x2F, (byte) 0xE1, (byte) 0x28, (byte) 0x4F, (byte) 0x10,
-        (byte) 0xA0, (byte) 0x00, (byte) 0x00, (byte) 0x04, (byte) 0x76, (byte) 0x41,
-        (byte) 0x6E, (byte) 0x64, (byte) 0x72, (byte) 0x6F, (byte) 0x69, (byte) 0x64,
-        (byte) 0x43, (byte) 0x54, (byte) 0x53, (byte) 0x46, (byte) 0xC1, (byte) 0x14,
-        (byte) 0x93, (byte) 0xB0, (byte) 0xFF, (byte) 0x22, (byte) 0x60, (byte) 0xBA,
-        (byte) 0xBD, (byte) 0x4C, (byte) 0x2A, (byte) 0x92, (byte) 0xC6, (byte) 0x8A,
-        (byte) 0xAA, (byte) 0x00, (byte) 0x39, (byte) 0xDC, (byte) 0x51, (byte) 0x4D,
-        (byte) 0x8A, (byte) 0x33, (byte) 0xE3, (byte) 0x03, (byte) 0xD0, (byte) 0x01,
-        (byte) 0x01,
+    // Number of the distinct AIDs, hashes and AR-DOs. Each of them shall not exceed 255.
+    private static final short MAX_AIDS   = 0x40;
+    private static final short MAX_HASHES = 0x80;
+    private static final short MAX_AR_DOS = 0x20;
 
-        /*
-           REF-AR-DOs with the specific APDU fileters for CtsSecureElementAccessControlTestCases3.
-
-           |REF-AR-DO|T|E2    | |                  | |                                        |
-           |         |L|2F    | |                  | |                                        |
-           |         |V|REF-DO|T|E1                | |                                        |
-           |         | |      |L|28                | |                                        |
-           |         | |      |V|AID-REF-DO        |T|4F                                      |
-           |         | |      | |                  |L|10                                      |
-           |         | |      | |                  |V|A000000476416E64726F696443545340        |
-           |         | |      | |DeviceAppID-REF-DO|T|C1                                      |
-           |         | |      | |                  |L|14                                      |
-           |         | |      | |                  |V|5528CA826DA49D0D7329F8117481CCB27B8833AA|
-           |         | |AR-DO |T|E3                | |                                        |
-           |         | |      |L|03                | |                                        |
-           |         | |      |V|APDU-AR-DO        |T|D0                                      |
-           |         | |      | |                  |L|01                                      |
-           |         | |      | |                  |V|01 (Always)                             |
-           |REF-AR-DO|T|E2    | |                  | |                                        |
-           |         |L|36    | |                  | |                                        |
-           |         |V|REF-DO|T|E1                | |                                        |
-           |         | |      |L|28                | |                                        |
-           |         | |      |V|AID-REF-DO        |T|4F                                      |
-           |         | |      | |                  |L|10                                      |
-           |         | |      | |                  |V|A000000476416E64726F696443545341        |
-           |         | |      | |DeviceAppID-REF-DO|T|C1                                      |
-           |         | |      | |                  |L|14                                      |
-           |         | |      | |                  |V|5528CA826DA49D0D7329F8117481CCB27B8833AA|
-           |         | |AR-DO |T|E3                | |                                        |
-           |         | |      |L|0A                | |                                        |
-           |         | |      |V|APDU-AR-DO        |T|D0                                      |
-           |         | |      | |                  |L|08                                      |
-           |         | |      | |                  |V|94000000 / FF000000                     |
-           |REF-AR-DO|T|E2    | |                  | |                                        |
-           |         |L|2F    | |                  | |                                        |
-           |         |V|REF-DO|T|E1                | |                                        |
-           |         | |      |L|28                | |                                        |
-           |         | |      |V|AID-REF-DO        |T|4F                                      |
-           |         | |      | |                  |L|10                                      |
-           |         | |      | |                  |V|A000000476416E64726F696443545345        |
-           |         | |      | |DeviceAppID-REF-DO|T|C1                                      |
-           |         | |      | |                  |L|14                                      |
-           |         | |      | |                  |V|5528CA826DA49D0D7329F8117481CCB27B8833AA|
-           |         | |AR-DO |T|E3                | |                                        |
-           |         | |      |L|03                | |                                        |
-           |         | |      |V|APDU-AR-DO        |T|D0                                      |
-           |         | |      | |                  |L|01                                      |
-           |         | |      | |                  |V|01 (Always)                             |
-           |REF-AR-DO|T|E2    | |                  | |                                        |
-           |         |L|2F    | |                  | |                                        |
-           |         |V|REF-DO|T|E1                | |                                        |
-           |         | |      |L|28                | |                                        |
-           |         | |      |V|AID-REF-DO        |T|4F                                      |
-           |         | |      | |                  |L|10                                      |
-           |         | |      | |                  |V|A000000476416E64726F696443545346        |
-           |         | |      | |DeviceAppID-REF-DO|T|C1                                      |
-           |         | |      | |                  |L|14                                      |
-           |         | |      | |                  |V|5528CA826DA49D0D7329F8117481CCB27B8833AA|
-           |         | |AR-DO |T|E3                | |                                        |
-           |         | |      |L|03                | |                                        |
-           |         | |      |V|APDU-AR-DO        |T|D0                                      |
-           |         | |      | |                  |L|01                                      |
-           |         | |      | |                  |V|01 (Always)                             |
-        */
-        (byte) 0xE2, (byte) 0x2F, (byte) 0xE1, (byte) 0x28, (byte) 0x4F, (byte) 0x10,
-        (byte) 0xA0, (byte) 0x00, (byte) 0x00, (byte) 0x04, (byte) 0x76, (byte) 0x41,
-        (byte) 0x6E, (byte) 0x64, (byte) 0x72, (byte) 0x6F, (byte) 0x69, (byte) 0x64,
-        (byte) 0x43, (byte) 0x54, (byte) 0x53, (byte) 0x40, (byte) 0xC1, (byte) 0x14,
-        (byte) 0x55, (byte) 0x28, (byte) 0xCA, (byte) 0x82, (byte) 0x6D, (byte) 0xA4,
-        (byte) 0x9D, (byte) 0x0D, (byte) 0x73, (byte) 0x29, (byte) 0xF8, (byte) 0x11,
-        (byte) 0x74, (byte) 0x81, (byte) 0xCC, (byte) 0xB2, (byte) 0x7B, (byte) 0x88,
-        (byte) 0x33, (byte) 0xAA, (byte) 0xE3, (byte) 0x03, (byte) 0xD0, (byte) 0x01,
-        (byte) 0x01,
-        (byte) 0xE2, (byte) 0x36, (byte) 0xE1, (byte) 0x28, (byte) 0x4F, (byte) 0x10,
-        (byte) 0xA0, (byte) 0x00, (byte) 0x00, (byte) 0x04, (byte) 0x76, (byte) 0x41,
-        (byte) 0x6E, (byte) 0x64, (byte) 0x72, (byte) 0x6F, (byte) 0x69, (byte) 0x64,
-        (byte) 0x43, (byte) 0x54, (byte) 0x53, (byte) 0x41, (byte) 0xC1, (byte) 0x14,
-        (byte) 0x55, (byte) 0x28, (byte) 0xCA, (byte) 0x82, (byte) 0x6D, (byte) 0xA4,
-        (byte) 0x9D, (byte) 0x0D, (byte) 0x73, (byte) 0x29, (byte) 0xF8, (byte) 0x11,
-        (byte) 0x74, (byte) 0x81, (byte) 0xCC, (byte) 0xB2, (byte) 0x7B, (byte) 0x88,
-        (byte) 0x33, (byte) 0xAA, (byte) 0xE3, (byte) 0x0A, (byte) 0xD0, (byte) 0x08,
-        (byte) 0x94, (byte) 0x00, (byte) 0x00, (byte) 0x00, (byte) 0xFF, (byte) 0x00,
-        (byte) 0x00, (byte) 0x00,
-        (byte) 0xE2, (byte) 0x2F, (byte) 0xE1, (byte) 0x28, (byte) 0x4F, (byte) 0x10,
-        (byte) 0xA0, (byte) 0x00, (byte) 0x00, (byte) 0x04, (byte) 0x76, (byte) 0x41,
-        (byte) 0x6E, (byte) 0x64, (byte) 0x72, (byte) 0x6F, (byte) 0x69, (byte) 0x64,
-        (byte) 0x43, (byte) 0x54, (byte) 0x53, (byte) 0x45, (byte) 0xC1, (byte) 0x14,
-        (byte) 0x55, (byte) 0x28, (byte) 0xCA, (byte) 0x82, (byte) 0x6D, (byte) 0xA4,
-        (byte) 0x9D, (byte) 0x0D, (byte) 0x73, (byte) 0x29, (byte) 0xF8, (byte) 0x11,
-        (byte) 0x74, (byte) 0x81, (byte) 0xCC, (byte) 0xB2, (byte) 0x7B, (byte) 0x88,
-        (byte) 0x33, (byte) 0xAA, (byte) 0xE3, (byte) 0x03, (byte) 0xD0, (byte) 0x01,
-        (byte) 0x01,
-        (byte) 0xE2, (byte) 0x2F, (byte) 0xE1, (byte) 0x28, (byte) 0x4F, (byte) 0x10,
-        (byte) 0xA0, (byte) 0x00, (byte) 0x00, (byte) 0x04, (byte) 0x76, (byte) 0x41,
-        (byte) 0x6E, (byte) 0x64, (byte) 0x72, (byte) 0x6F, (byte) 0x69, (byte) 0x64,
-        (byte) 0x43, (byte) 0x54, (byte) 0x53, (byte) 0x46, (byte) 0xC1, (byte) 0x14,
-        (byte) 0x55, (byte) 0x28, (byte) 0xCA, (byte) 0x82, (byte) 0x6D, (byte) 0xA4,
-        (byte) 0x9D, (byte) 0x0D, (byte) 0x73, (byte) 0x29, (byte) 0xF8, (byte) 0x11,
-        (byte) 0x74, (byte) 0x81, (byte) 0xCC, (byte) 0xB2, (byte) 0x7B, (byte) 0x88,
-        (byte) 0x33, (byte) 0xAA, (byte) 0xE3, (byte) 0x03, (byte) 0xD0, (byte) 0x01,
-        (byte) 0x01
-    };
+    /*
+       Nodes of the AID index of each rule bank, which takes a node for each byte of an AID not
+       shared with the AIDs stored before, and the root node. MAX_AIDS AIDs of 16 bytes (the
+       longest AID-REF-DO) therefore fit even if none of them shares a prefix, so the number of
+       the AIDs which can be stored is limited only by MAX_AIDS. Each node takes 7 bytes.
+    */
+    private static final short MAX_INDEX_NODES = (short) (MAX_AIDS * 16 + 1);
 
-    private static final byte[] RESPONSE_REFRESH_TAG_DO = {
-        /*
-           |Response-Refresh-Tag-DO|T|DF20            |
-           |                       |L|08              |
-           |                       |V|0123456789ABCDEF|
-        */
-        (byte) 0xDF, (byte) 0x20, (byte) 0x08, (byte) 0x01, (byte) 0x23, (byte) 0x45,
-        (byte) 0x67, (byte) 0x89, (byte) 0xAB, (byte) 0xCD, (byte) 0xEF
+    // Logical channels 0 to 3 and the extended logical channels 4 to 19.
+    private static final byte MAX_LOGICAL_CHANNELS = 20;
+
+    // Fields of the outgoing data cursor kept in the transient memory for each logical channel.
+    private static final byte CURSOR_CLASS      = 0;
+    private static final byte CURSOR_MODE       = 1;
+    private static final byte CURSOR_HEADER     = 2;
+    private static final byte CURSOR_OFFSET     = 3;
+    private static final byte CURSOR_PAGES      = 4;
+    private static final byte CURSOR_LENGTH     = 5;
+    private static final byte CURSOR_RECORD     = 6;
+    private static final byte CURSOR_POSITION   = 7;
+    private static final byte CURSOR_GENERATION = 8;
+    private static final byte CURSOR_SIZE       = 9;
+
+    // The outgoing data is continued by GET RESPONSE or GET DATA [Next].
+    private static final byte MODE_NONE     = 0;
+    private static final byte MODE_RESPONSE = 1;
+    private static final byte MODE_NEXT     = 2;
+
+    /*
+       Tag (2 bytes) and length (up to 4 bytes) of the outgoing data object, which may be preceded
+       by Response-Refresh-Tag-DO (11 bytes).
+    */
+    private static final byte HEADER_SIZE = 17;
+
+    /*
+       The profiles of the REF-AR-DOs stored at the installation. The applet specific parameters
+       of the installation may consist of the following fields.
+
+       |Profiles    |1 byte |PROFILE_CARRIER_PRIVILEGES and/or PROFILE_CTS (PROFILE_ALL if absent)|
+       |            |       |with OPTION_SAVE_TRACE if required                                  |
+       |Refresh Tag |8 bytes|The initial refresh tag (INITIAL_REFRESH_TAG if absent)           |
+
+       The REF-AR-DOs of each profile are kept in RuleProfiles, which is generated from the rule
+       file by the make file.
+    */
+    private static final byte PROFILE_CARRIER_PRIVILEGES = 0x01;
+    private static final byte PROFILE_CTS                = 0x02;
+    private static final byte PROFILE_ALL = PROFILE_CARRIER_PRIVILEGES | PROFILE_CTS;
+
+    // The trace of the commands is saved into the EEPROM when a command fails.
+    private static final byte OPTION_SAVE_TRACE = (byte) 0x80;
+
+    // The refresh tag at the installation. It is counted up every time the rules are updated.
+    private static final byte[] INITIAL_REFRESH_TAG = {
+        (byte) 0x01, (byte) 0x23, (byte) 0x45, (byte) 0x67, (byte) 0x89, (byte) 0xAB,
+        (byte) 0xCD, (byte) 0xEF
     };
 
-    private byte mCurrentClass = 0x00;
-    private byte[] mOutgoingData = null;
-    private short mDataOffset = 0;
+    private short[] mCursor;
+    private Object[] mOutgoingData;
+    private byte[] mHeader;
 
-    private short mRemainingData = 0;
+    private RuleStore mRuleStore;
+    private ClientRegistry mClients;
+    private Metrics mMetrics;
+    private Trace mTrace;
+    /*
+       The number of the next block of the staged STORE DATA, or 0 if no block is expected. It is
+       cleared at the reset, the deselection and INITIALIZE UPDATE, so that a sequence never
+       continues over the secure channel sessions.
+    */
+    private short[] mNextBlock;
 
-    private AramApplet() {
+    private AramApplet(byte profiles, byte[] refreshTag, short refreshTagOffset) {
+        mRuleStore = new RuleStore(MAX_RULES, MAX_INDEX_NODES, MAX_JOURNAL_ENTRIES, MAX_AIDS,
+                MAX_HASHES, MAX_AR_DOS, MAX_CACHED_RULES);
+        if ((profiles & PROFILE_CARRIER_PRIVILEGES) != 0) {
+            mRuleStore.load(RuleProfiles.CARRIER_PRIVILEGES_REF_AR_DOS, (short) 0,
+                    (short) RuleProfiles.CARRIER_PRIVILEGES_REF_AR_DOS.length);
+        }
+        if ((profiles & PROFILE_CTS) != 0) {
+            mRuleStore.load(RuleProfiles.CTS_REF_AR_DOS, (short) 0,
+                    (short) RuleProfiles.CTS_REF_AR_DOS.length);
+        }
+        mRuleStore.setRefreshTag(refreshTag, refreshTagOffset);
+        mClients = new ClientRegistry(mRuleStore, MAX_CLIENTS);
+        mMetrics = new Metrics();
+        mTrace = new Trace((profiles & OPTION_SAVE_TRACE) != 0);
+
+        // The cursors are updated on almost every APDU, so they shall not be kept in the EEPROM.
+        mCursor = JCSystem.makeTransientShortArray(
+                (short) (MAX_LOGICAL_CHANNELS * CURSOR_SIZE), JCSystem.CLEAR_ON_DESELECT);
+        mOutgoingData = JCSystem.makeTransientObjectArray(MAX_LOGICAL_CHANNELS,
+                JCSystem.CLEAR_ON_DESELECT);
+        mHeader = JCSystem.makeTransientByteArray(
+                (short) (MAX_LOGICAL_CHANNELS * HEADER_SIZE), JCSystem.CLEAR_ON_DESELECT);
+        mNextBlock = JCSystem.makeTransientShortArray((short) 1, JCSystem.CLEAR_ON_RESET);
     }
 
-    public static void install(byte[] bArray, short bOffset, byte bLength) {
-        AramApplet applet = new AramApplet();
+    public static void install(byte[] bArray, short bOffset, byte bLength) throws ISOException {
+        // Skip the instance AID and the control information to the applet specific parameters.
+        short offset = (short) (bOffset + bArray[bOffset] + 1);
+        offset += (short) (bArray[offset] + 1);
+        short length = bArray[offset++];
+
+        byte profiles = PROFILE_ALL;
+        byte[] refreshTag = INITIAL_REFRESH_TAG;
+        short refreshTagOffset = 0;
+        switch (length) {
+            case 1 + RuleStore.REFRESH_TAG_LENGTH:
+                refreshTag = bArray;
+                refreshTagOffset = (short) (offset + 1);
+                // Fall through to the profiles.
+            case 1:
+                profiles = bArray[offset];
+                break;
+            case 0:
+                break;
+            default:
+                ISOException.throwIt(ISO7816.SW_WRONG_LENGTH);
+                break;
+        }
+        if ((profiles & ~(PROFILE_ALL | OPTION_SAVE_TRACE)) != 0) {
+            ISOException.throwIt(ISO7816.SW_WRONG_DATA);
+        }
+
+        AramApplet applet = new AramApplet(profiles, refreshTag, refreshTagOffset);
         applet.register();
     }
 
+    public boolean select(boolean appInstAlreadyActive) {
+        return true;
+    }
+
+    public void deselect() {
+        deselect(false);
+    }
+
+    public void deselect(boolean appInstStillActive) {
+        // The transient memory is not cleared while this applet is still active on another channel.
+        clearOutgoingData(JCSystem.getAssignedChannel());
+        GPSystem.getSecureChannel().resetSecurity();
+        giveUpStoreData();
+    }
+
     public void process(APDU apdu) throws ISOException {
+        mTrace.begin(apdu.getBuffer());
+        try {
+            processCommand(apdu);
+        } catch (ISOException e) {
+            mMetrics.countStatus(e.getReason());
+            mTrace.end(e.getReason());
+            throw e;
+        }
+        mTrace.end(ISO7816.SW_NO_ERROR);
+    }
+
+    private void processCommand(APDU apdu) throws ISOException {
         byte[] buffer = apdu.getBuffer();
         byte cla = buffer[ISO7816.OFFSET_CLA];
         byte ins = buffer[ISO7816.OFFSET_INS];
         byte p2 = buffer[ISO7816.OFFSET_P2];
+        byte channel = JCSystem.getAssignedChannel();
+        short cursor = (short) (channel * CURSOR_SIZE);
 
         if (selectingApplet()) {
+            mMetrics.count((byte) (Metrics.SELECT_FCI + ((p2 & 0x0C) >> 2)));
+            synchronizeClients(apdu);
             byte[] response = null;
             switch (p2 & 0x0C) {
                 case TEMPLATE_FCI:
@@ -1056,21 +287,25 @@ public class AramApplet extends Applet {
                     ISOException.throwIt(ISO7816.SW_WRONG_P1P2);
                     return;
             }
-            initiateOutgoingCase4(cla, response);
+            initiateOutgoingCase4(apdu, channel, (short) 0, response, (short) 0, (short) 0,
+                    (short) response.length);
             return;
         }
 
-        if (ins != INS_GET_RESPONSE) {
-            clearOutgoingData();
+        short mode = mCursor[(short) (cursor + CURSOR_MODE)];
+        if ((ins != INS_GET_RESPONSE) && ((ins != INS_GET_DATA)
+                || !keepsOutgoingData(Util.getShort(buffer, ISO7816.OFFSET_P1)))) {
+            clearOutgoingData(channel);
         }
 
         switch (ins) {
             case INS_GET_RESPONSE:
-                if (cla != mCurrentClass) {
+                mMetrics.count(Metrics.GET_RESPONSE);
+                if (cla != (byte) mCursor[(short) (cursor + CURSOR_CLASS)]) {
                     ISOException.throwIt(ISO7816.SW_CLA_NOT_SUPPORTED);
                 }
-                if (mOutgoingData != null) {
-                    processOutgoingCase2(apdu);
+                if (mode == MODE_RESPONSE) {
+                    processOutgoing(apdu, channel, MODE_RESPONSE);
                 }
                 break;
 
@@ -1081,18 +316,59 @@ public class AramApplet extends Applet {
                 }
                 switch (Util.getShort(buffer, (short) ISO7816.OFFSET_P1)) {
                     case GET_DATA_ALL:
-                        mRemainingData = (short) RESPONSE_ALL_REF_AR_DO.length;
-                        initiateOutgoingCase2(apdu, RESPONSE_ALL_REF_AR_DO, (short) 0);
+                        mMetrics.count(Metrics.GET_DATA_ALL);
+                        initiateOutgoingRules(apdu, channel);
+                        break;
+                    case GET_DATA_ALL_IF_MODIFIED:
+                        mMetrics.count(Metrics.GET_DATA_OTHERS);
+                        processGetDataAllIfModified(apdu, channel);
+                        break;
+                    case GET_DATA_UPDATES:
+                        mMetrics.count(Metrics.GET_DATA_OTHERS);
+                        processGetDataUpdates(apdu, channel);
+                        break;
+                    case GET_DATA_BOOTSTRAP:
+                        mMetrics.count(Metrics.GET_DATA_OTHERS);
+                        initiateOutgoingBootstrap(apdu, channel);
+                        break;
+                    case GET_DATA_CARRIER_PRIVILEGES:
+                        mMetrics.count(Metrics.GET_DATA_OTHERS);
+                        initiateOutgoingCarrierPrivileges(apdu, channel);
+                        break;
+                    case GET_DATA_SPECIFIC:
+                        mMetrics.count(Metrics.GET_DATA_SPECIFIC);
+                        processGetDataSpecific(apdu, channel);
                         break;
                     case GET_DATA_NEXT:
-                        if (mRemainingData == 0) {
+                        mMetrics.count(Metrics.GET_DATA_NEXT);
+                        if (mode != MODE_NEXT) {
                             ISOException.throwIt(ISO7816.SW_CONDITIONS_NOT_SATISFIED);
                         }
-                        initiateOutgoingCase2(apdu, RESPONSE_ALL_REF_AR_DO,
-                            (short) (RESPONSE_ALL_REF_AR_DO.length - mRemainingData));
+                        processOutgoing(apdu, channel, MODE_NEXT);
                         break;
                     case GET_DATA_REFRESH_TAG:
-                        initiateOutgoingCase2(apdu, RESPONSE_REFRESH_TAG_DO, (short) 0);
+                        mMetrics.count(Metrics.GET_DATA_REFRESH_TAG);
+                        synchronizeClients(apdu);
+                        sendDataObject(apdu, channel, (short) 0, mRuleStore.getRefreshTagDo(),
+                                RuleStore.REFRESH_TAG_DO_LENGTH);
+                        break;
+                    case GET_DATA_METRICS:
+                        mMetrics.count(Metrics.GET_DATA_OTHERS);
+                        sendDataObject(apdu, channel, GET_DATA_METRICS, mMetrics.getCounters(),
+                                Metrics.LENGTH);
+                        break;
+                    case GET_DATA_CLEAR_METRICS:
+                        mMetrics.clear();
+                        break;
+                    case GET_DATA_TRACE:
+                        mMetrics.count(Metrics.GET_DATA_OTHERS);
+                        initiateOutgoingTrace(apdu, channel, GET_DATA_TRACE,
+                                mTrace.getEntries());
+                        break;
+                    case GET_DATA_SAVED_TRACE:
+                        mMetrics.count(Metrics.GET_DATA_OTHERS);
+                        initiateOutgoingTrace(apdu, channel, GET_DATA_SAVED_TRACE,
+                                mTrace.getSnapshot());
                         break;
                     default:
                         ISOException.throwIt(ISO7816.SW_WRONG_P1P2);
@@ -1100,79 +376,722 @@ public class AramApplet extends Applet {
                 }
                 break;
 
+            case INS_STORE_DATA:
+                mMetrics.count(Metrics.STORE_DATA);
+                if ((cla & 0x80) != 0x80) {
+                    ISOException.throwIt(ISO7816.SW_CLA_NOT_SUPPORTED);
+                }
+                processStoreData(apdu);
+                break;
+
+            case INS_INITIALIZE_UPDATE:
+                // The blocks of STORE DATA staged in the previous session are never continued.
+                giveUpStoreData();
+                // Fall through to the Security Domain.
+            case INS_EXTERNAL_AUTHENTICATE:
+                // Let the Security Domain open the secure channel session for STORE DATA.
+                short length = GPSystem.getSecureChannel().processSecurity(apdu);
+                if (length != 0) {
+                    apdu.setOutgoingAndSend(ISO7816.OFFSET_CDATA, length);
+                    mMetrics.countBytes(length);
+                }
+                break;
+
             default:
                 ISOException.throwIt(ISO7816.SW_INS_NOT_SUPPORTED);
                 break;
         }
     }
 
-    private void initiateOutgoingCase2(APDU apdu, byte[] data, short offset)
-            throws ISOException {
+    /*
+       Merges the rules of the ARA-Cs changed since the last time. It is done only when the caller
+       is going to ask whether the rules have been updated, that is at SELECT and GET DATA
+       [Refresh tag], so that the other commands never call any ARA-C. The APDU buffer is used
+       to receive the REF-AR-DOs after the header of the command.
+    */
+    private void synchronizeClients(APDU apdu) {
+        // The rules being staged by STORE DATA shall not be discarded.
+        if (mNextBlock[0] == 0) {
+            mClients.synchronize(apdu.getBuffer(), ISO7816.OFFSET_CDATA);
+        }
+    }
+
+    /*
+       The outgoing data of each logical channel consists of the header bytes kept in mHeader
+       followed by either a byte array or the data objects written out from a rule table such as
+       the slots of the rule store. The slots of a rule bank are written out in the order of its
+       index instead. CURSOR_OFFSET points at the next byte to be sent from the header, and
+       CURSOR_RECORD and CURSOR_POSITION point at the next byte to be sent from the array or the
+       entry of the rule table. The offset given for a rule table is the index of the first
+       entry. The rest of the outgoing data may exceed the range of short, so it is
+       counted down in CURSOR_PAGES and CURSOR_LENGTH as the total length of the rule store is.
+    */
+    private void initiateOutgoingRules(APDU apdu, byte channel) throws ISOException {
+        byte[] command = apdu.getBuffer();
+        short pages = mRuleStore.getTotalPages();
+        short length = mRuleStore.getTotalLength();
+
+        /*
+           |Response-ALL-REF-AR-DO|T|FF40      |
+           |                      |L|xx        |
+           |                      |V|REF-AR-DOs|
+        */
+        setOutgoingData(channel, command[ISO7816.OFFSET_CLA],
+                setHeader(channel, (short) 0, GET_DATA_ALL, pages, length),
+                mRuleStore.getRules(), (short) 0, pages, length);
+        processOutgoing(apdu, channel, MODE_NEXT);
+    }
+
+    /*
+       GET DATA [All] cannot carry the command data since it is a case 2 command. The refresh tag
+       which the caller has is therefore sent with the proprietary tag instead.
+
+       |Command data|T|DF20       |
+       |            |L|08         |
+       |            |V|Refresh Tag|
+
+       Nothing but SW 9000 is returned if the refresh tag is still the same. Otherwise
+       Response-ALL-REF-AR-DO is returned as the response to GET DATA [All] is.
+    */
+    private void processGetDataAllIfModified(APDU apdu, byte channel) throws ISOException {
+        byte[] command = apdu.getBuffer();
+        receiveRefreshTagDo(apdu);
+
+        if (Util.arrayCompare(command, ISO7816.OFFSET_CDATA, mRuleStore.getRefreshTagDo(),
+                (short) 0, RuleStore.REFRESH_TAG_DO_LENGTH) == 0) {
+            return;
+        }
+        initiateOutgoingRulesCase4(apdu, channel);
+    }
+
+    /*
+       Returns the updates of the rules made since the refresh tag which the caller has.
+       The command data is the same as the one of processGetDataAllIfModified().
+
+       |Response-Updates|T|FF42                          |
+       |                |L|xx                            |
+       |                |V|REF-AR-DOs and Command-Deletes|
+
+       Response-Refresh-Tag-DO with the current refresh tag is returned followed by
+       Response-Updates. The REF-AR-DOs stored and Command-Delete for each REF-AR-DO deleted are
+       returned from the oldest one, so that the caller can apply them one after another as
+       STORE DATA would. Response-ALL-REF-AR-DO is returned instead of Response-Updates if the
+       journal no longer covers all of the updates.
+    */
+    private void processGetDataUpdates(APDU apdu, byte channel) throws ISOException {
+        byte[] command = apdu.getBuffer();
+        receiveRefreshTagDo(apdu);
+
+        short count = mRuleStore.getUpdateCount(command, (short) (ISO7816.OFFSET_CDATA + 3));
+        RuleTable table = mRuleStore.getRules();
+        short tag = GET_DATA_ALL;
+        short first = 0;
+        short pages = mRuleStore.getTotalPages();
+        short length = mRuleStore.getTotalLength();
+        if (count != RuleIndex.NONE) {
+            RuleJournal journal = mRuleStore.getJournal();
+            table = journal.getEntries();
+            tag = GET_DATA_UPDATES;
+            first = journal.getFirst(count);
+            pages = 0;
+            length = mRuleStore.getLength(table, first, table.getSize());
+        }
+
+        Util.arrayCopyNonAtomic(mRuleStore.getRefreshTagDo(), (short) 0, mHeader,
+                (short) (channel * HEADER_SIZE), RuleStore.REFRESH_TAG_DO_LENGTH);
+        initiateOutgoingCase4(apdu, channel,
+                setHeader(channel, RuleStore.REFRESH_TAG_DO_LENGTH, tag, pages, length), table,
+                first, pages, length);
+    }
+
+    private void receiveRefreshTagDo(APDU apdu) throws ISOException {
+        byte[] command = apdu.getBuffer();
+        short length = apdu.setIncomingAndReceive();
+
+        if ((length != RuleStore.REFRESH_TAG_DO_LENGTH)
+                || (Util.getShort(command, ISO7816.OFFSET_CDATA) != GET_DATA_REFRESH_TAG)
+                || (command[(short) (ISO7816.OFFSET_CDATA + 2)]
+                        != RuleStore.REFRESH_TAG_LENGTH)) {
+            ISOException.throwIt(ISO7816.SW_WRONG_DATA);
+        }
+    }
+
+    private void initiateOutgoingRulesCase4(APDU apdu, byte channel) throws ISOException {
+        short pages = mRuleStore.getTotalPages();
+        short length = mRuleStore.getTotalLength();
+        initiateOutgoingCase4(apdu, channel,
+                setHeader(channel, (short) 0, GET_DATA_ALL, pages, length),
+                mRuleStore.getRules(), (short) 0, pages, length);
+    }
+
+    /*
+       Returns Response-Refresh-Tag-DO followed by Response-ALL-REF-AR-DO, so that the caller
+       starting up can get both of them without GET DATA [Refresh tag]. The rest of them is
+       continued by GET DATA [Next] as the response to GET DATA [All] is.
+    */
+    private void initiateOutgoingBootstrap(APDU apdu, byte channel) throws ISOException {
         byte[] command = apdu.getBuffer();
+        short pages = mRuleStore.getTotalPages();
+        short length = mRuleStore.getTotalLength();
+
+        Util.arrayCopyNonAtomic(mRuleStore.getRefreshTagDo(), (short) 0, mHeader,
+                (short) (channel * HEADER_SIZE), RuleStore.REFRESH_TAG_DO_LENGTH);
+        setOutgoingData(channel, command[ISO7816.OFFSET_CLA],
+                setHeader(channel, RuleStore.REFRESH_TAG_DO_LENGTH, GET_DATA_ALL, pages, length),
+                mRuleStore.getRules(), (short) 0, pages, length);
+        processOutgoing(apdu, channel, MODE_NEXT);
+    }
 
-        mCurrentClass = command[ISO7816.OFFSET_CLA];
-        mOutgoingData = data;
-        mDataOffset = offset;
+    /*
+       Returns the entries of the trace with the specified tag, or only the tag and the length 0
+       if the entries are not available. The entry of this command itself has no status word.
+    */
+    private void initiateOutgoingTrace(APDU apdu, byte channel, short tag, byte[] entries)
+            throws ISOException {
+        short length = (entries != null) ? Trace.LENGTH : 0;
+        sendDataObject(apdu, channel, tag, entries, length);
+    }
 
-        processOutgoingCase2(apdu);
+    /*
+       Returns true if GET DATA with the specified tag keeps the outgoing data of the channel.
+       Those are GET DATA [Next] itself and the ones of the data objects sent by
+       sendDataObject(), so that the caller can read them in the middle of the rules.
+    */
+    private static boolean keepsOutgoingData(short tag) {
+        switch (tag) {
+            case GET_DATA_NEXT:
+            case GET_DATA_REFRESH_TAG:
+            case GET_DATA_METRICS:
+            case GET_DATA_CLEAR_METRICS:
+            case GET_DATA_TRACE:
+            case GET_DATA_SAVED_TRACE:
+                return true;
+            default:
+                return false;
+        }
     }
 
-    private void processOutgoingCase2(APDU apdu) throws ISOException {
-        short remaining = (short) (mOutgoingData.length - mDataOffset);
-        short available = (DATA_BUFFER_SIZE < remaining) ? DATA_BUFFER_SIZE : remaining;
+    /*
+       Sends the data object with the specified tag and the data, or only the data if the tag is
+       0, in a single response without the outgoing data of the channel. The header is written
+       into the APDU buffer and the data is sent from its array, so that the outgoing data being
+       sent by GET DATA [Next] is kept as it is. The outgoing data is replaced as usual only if Le
+       is absent or less than the whole data object, since the rest shall be kept for the caller.
+    */
+    private void sendDataObject(APDU apdu, byte channel, short tag, byte[] data, short length)
+            throws ISOException {
+        byte[] buffer = apdu.getBuffer();
+        byte cla = buffer[ISO7816.OFFSET_CLA];
+        short header = 0;
+        if (tag != 0) {
+            Util.setShort(buffer, (short) 0, tag);
+            header = Tlv.setLength(buffer, (short) 2, length);
+        }
+        short total = (short) (header + length);
 
+        short expected = apdu.setOutgoing();
+        if ((expected == 0x00) || (expected < total)) {
+            setOutgoingData(channel, cla,
+                    (tag != 0) ? setHeader(channel, (short) 0, tag, (short) 0, length) : 0,
+                    data, (short) 0, (short) 0, length);
+            processOutgoing(apdu, channel, MODE_NEXT, expected);
+            return;
+        }
+        if ((expected > total) && isProtocolT0()) {
+            // Return SW 6Cxx if Le is bigger than the actual outgoing data.
+            ISOException.throwIt((short) (ISO7816.SW_CORRECT_LENGTH_00 + total));
+        }
+
+        apdu.setOutgoingLength(total);
+        if (header > 0) {
+            apdu.sendBytes((short) 0, header);
+        }
+        if (length > 0) {
+            apdu.sendBytesLong(data, (short) 0, length);
+        }
+        mMetrics.countBytes(total);
+    }
+
+    /*
+       Returns Response-ALL-REF-AR-DO containing only the REF-AR-DOs for UICC Carrier Privileges,
+       that is the ones whose AID-REF-DO is FFFFFFFFFFFF. They are sent one after another
+       following the index of the rule store, so the rest of the REF-AR-DOs such as the ones for
+       the CTS are never walked over. The rest of them is continued by GET DATA [Next] as the
+       response to GET DATA [All] is.
+    */
+    private void initiateOutgoingCarrierPrivileges(APDU apdu, byte channel) throws ISOException {
         byte[] command = apdu.getBuffer();
-        short expected = (short) (command[ISO7816.OFFSET_LC] & 0xFF);
+        RuleBank bank = mRuleStore.getActiveBank();
+        RuleTable table = bank.getRules();
+        RuleIndex index = bank.getIndex();
+        short first = index.findFirstRule(CARRIER_PRIVILEGES_AID, (short) 0,
+                (short) CARRIER_PRIVILEGES_AID.length);
+
+        // Each REF-AR-DO is shorter than a page.
+        short pages = 0;
+        short length = 0;
+        for (short rule = first; rule != RuleIndex.NONE; rule = index.getNextRule(rule)) {
+            length += mRuleStore.getLength(table, rule);
+            if (length >= RuleStore.PAGE_SIZE) {
+                length -= RuleStore.PAGE_SIZE;
+                pages++;
+            }
+        }
+
+        setOutgoingData(channel, command[ISO7816.OFFSET_CLA],
+                setHeader(channel, (short) 0, GET_DATA_ALL, pages, length), bank, first, pages,
+                length);
+        processOutgoing(apdu, channel, MODE_NEXT);
+    }
+
+    /*
+       Sends the next part of the outgoing data as much as Le allows, and keeps the rest of it for
+       GET RESPONSE (MODE_RESPONSE) or GET DATA [Next] (MODE_NEXT) as specified.
+
+       T=0 conveys exactly the number of bytes given by P3, so SW 6Cxx is returned if Le is bigger
+       than the outgoing data. On the other protocols Le is the maximum number of bytes, and the
+       outgoing data is returned as it is without any retry. The Java Card RE splits the response
+       into blocks of APDU.getOutBlockSize() bytes by itself, so the part sent at a time is
+       limited only by Le, which is 256 bytes at most.
+    */
+    private void processOutgoing(APDU apdu, byte channel, byte mode) throws ISOException {
+        processOutgoing(apdu, channel, mode, apdu.setOutgoing());
+    }
+
+    /*
+       Sends the next part of the outgoing data for the command whose Le has been given by
+       APDU.setOutgoing().
+    */
+    private void processOutgoing(APDU apdu, byte channel, byte mode, short expected)
+            throws ISOException {
+        short cursor = (short) (channel * CURSOR_SIZE);
+
+        // Give up the rules which have been updated since the first part of them was sent.
+        RuleTable table = getRuleTable(mOutgoingData[channel]);
+        if ((table != null) && (mCursor[(short) (cursor + CURSOR_GENERATION)]
+                != mRuleStore.getGeneration(table))) {
+            clearOutgoingData(channel);
+            ISOException.throwIt(ISO7816.SW_CONDITIONS_NOT_SATISFIED);
+        }
+
+        short pages = mCursor[(short) (cursor + CURSOR_PAGES)];
+        short remaining = mCursor[(short) (cursor + CURSOR_LENGTH)];
+        short available = ((pages != 0) || (DATA_BUFFER_SIZE < remaining))
+                ? DATA_BUFFER_SIZE : remaining;
+
         if (expected == 0x00) {
-            expected = DATA_BUFFER_SIZE;
+            // Le is absent in case 3 of the protocols other than T=0.
+            mCursor[(short) (cursor + CURSOR_MODE)] = MODE_RESPONSE;
+            ISOException.throwIt((short) (ISO7816.SW_BYTES_REMAINING_00
+                    + ((available < DATA_BUFFER_SIZE) ? available : 0x00)));
         }
 
         if (expected > available) {
-            // Return SW 6Cxx if Le is bigger than the the actual outgoing data.
-            ISOException.throwIt((short) (ISO7816.SW_CORRECT_LENGTH_00
-                    + ((available < DATA_BUFFER_SIZE) ? available : 0x00)));
+            if (isProtocolT0()) {
+                // Return SW 6Cxx if Le is bigger than the the actual outgoing data.
+                ISOException.throwIt((short) (ISO7816.SW_CORRECT_LENGTH_00
+                        + ((available < DATA_BUFFER_SIZE) ? available : 0x00)));
+            }
+            expected = available;
         }
 
-        apdu.setOutgoing();
         apdu.setOutgoingLength(expected);
-        apdu.sendBytesLong(mOutgoingData, mDataOffset, expected);
-
-        if (command[ISO7816.OFFSET_INS] != INS_GET_DATA) {
-            if (((remaining -= expected) > 0) && (expected == DATA_BUFFER_SIZE)) {
-                mDataOffset += expected;
-                // Return SW 61xx if remaining outgoing data exists after sending outgoing data.
-                ISOException.throwIt((short) (ISO7816.SW_BYTES_REMAINING_00
-                        + ((remaining < DATA_BUFFER_SIZE) ? remaining : (short) 0x00)));
-            } else {
-                clearOutgoingData();
+        sendOutgoingData(apdu, channel, expected);
+
+        remaining -= expected;
+        if (remaining < 0) {
+            remaining += RuleStore.PAGE_SIZE;
+            pages--;
+        }
+        if ((pages == 0) && (remaining == 0)) {
+            clearOutgoingData(channel);
+            return;
+        }
+        mCursor[(short) (cursor + CURSOR_PAGES)] = pages;
+        mCursor[(short) (cursor + CURSOR_LENGTH)] = remaining;
+        mCursor[(short) (cursor + CURSOR_MODE)] = mode;
+        if (mode == MODE_RESPONSE) {
+            // Return SW 61xx if remaining outgoing data exists after sending outgoing data.
+            ISOException.throwIt((short) (ISO7816.SW_BYTES_REMAINING_00
+                    + (((pages == 0) && (remaining < DATA_BUFFER_SIZE)) ? remaining : 0x00)));
+        }
+    }
+
+    /*
+       The outgoing data is written out into the APDU buffer part by part, so that no copy of the
+       whole outgoing data is needed.
+    */
+    private void sendOutgoingData(APDU apdu, byte channel, short length) {
+        byte[] buffer = apdu.getBuffer();
+        while (length > 0) {
+            short part = (length < (short) buffer.length) ? length : (short) buffer.length;
+            writeOutgoingData(channel, buffer, part);
+            apdu.sendBytes((short) 0, part);
+            mMetrics.countBytes(part);
+            length -= part;
+        }
+    }
+
+    private void writeOutgoingData(byte channel, byte[] buffer, short length) {
+        short cursor = (short) (channel * CURSOR_SIZE);
+        short offset = mCursor[(short) (cursor + CURSOR_OFFSET)];
+        short header = mCursor[(short) (cursor + CURSOR_HEADER)];
+        short position = mCursor[(short) (cursor + CURSOR_POSITION)];
+        short written = 0;
+
+        if (offset < header) {
+            written = (short) (header - offset);
+            written = (written < length) ? written : length;
+            Util.arrayCopyNonAtomic(mHeader, (short) (channel * HEADER_SIZE + offset), buffer,
+                    (short) 0, written);
+            mCursor[(short) (cursor + CURSOR_OFFSET)] = (short) (offset + written);
+            length -= written;
+        }
+
+        Object data = mOutgoingData[channel];
+        if (data instanceof byte[]) {
+            if (length > 0) {
+                Util.arrayCopyNonAtomic((byte[]) data, position, buffer, written, length);
             }
+            mCursor[(short) (cursor + CURSOR_POSITION)] = (short) (position + length);
+            return;
+        }
+
+        // The REF-AR-DOs of a bank are followed in the order of its index.
+        RuleTable table = getRuleTable(data);
+        RuleIndex index = (data instanceof RuleBank) ? ((RuleBank) data).getIndex() : null;
+        short record = mCursor[(short) (cursor + CURSOR_RECORD)];
+        while (length > 0) {
+            short size = mRuleStore.getLength(table, record);
+            if (position == size) {
+                record = (index != null) ? index.getNextRule(record) : (short) (record + 1);
+                position = 0;
+                continue;
+            }
+
+            short part = (short) (size - position);
+            part = (part < length) ? part : length;
+            written = mRuleStore.write(table, record, position, buffer, written, part);
+            position += part;
+            length -= part;
+        }
+        mCursor[(short) (cursor + CURSOR_RECORD)] = record;
+        mCursor[(short) (cursor + CURSOR_POSITION)] = position;
+    }
+
+    private void initiateOutgoingCase4(APDU apdu, byte channel, short header, Object data,
+            short offset, short pages, short length) throws ISOException {
+        byte[] command = apdu.getBuffer();
+        short cursor = (short) (channel * CURSOR_SIZE);
+
+        setOutgoingData(channel, command[ISO7816.OFFSET_CLA], header, data, offset, pages,
+                length);
+        if (!isProtocolT0()) {
+            processOutgoing(apdu, channel, MODE_RESPONSE);
+            return;
+        }
+        mCursor[(short) (cursor + CURSOR_MODE)] = MODE_RESPONSE;
+
+        length = mCursor[(short) (cursor + CURSOR_LENGTH)];
+        short sw2 = ((mCursor[(short) (cursor + CURSOR_PAGES)] == 0)
+                && (length < DATA_BUFFER_SIZE)) ? length : 0x00;
+        // Return SW 61xx for now as Le is unknown until GET RESPONSE in T=0.
+        ISOException.throwIt((short) (ISO7816.SW_BYTES_REMAINING_00 + sw2));
+    }
+
+    private static boolean isProtocolT0() {
+        return (APDU.getProtocol() & APDU.PROTOCOL_TYPE_MASK) == APDU.PROTOCOL_T0;
+    }
+
+    /*
+       The length of the data is given as the number of pages of RuleStore.PAGE_SIZE bytes and
+       the number of the rest of the bytes, which may be more than a page for a small table.
+    */
+    private void setOutgoingData(byte channel, byte cla, short header, Object data,
+            short offset, short pages, short length) {
+        short cursor = (short) (channel * CURSOR_SIZE);
+
+        pages += (short) (length / RuleStore.PAGE_SIZE);
+        length = (short) (length % RuleStore.PAGE_SIZE + header);
+        if (length >= RuleStore.PAGE_SIZE) {
+            length -= RuleStore.PAGE_SIZE;
+            pages++;
+        }
+
+        mCursor[(short) (cursor + CURSOR_CLASS)] = cla;
+        mCursor[(short) (cursor + CURSOR_MODE)] = MODE_NONE;
+        mCursor[(short) (cursor + CURSOR_HEADER)] = header;
+        mCursor[(short) (cursor + CURSOR_OFFSET)] = 0;
+        mCursor[(short) (cursor + CURSOR_PAGES)] = pages;
+        mCursor[(short) (cursor + CURSOR_LENGTH)] = length;
+        RuleTable table = getRuleTable(data);
+        if (table != null) {
+            mCursor[(short) (cursor + CURSOR_RECORD)] = offset;
+            mCursor[(short) (cursor + CURSOR_POSITION)] = 0;
+            mCursor[(short) (cursor + CURSOR_GENERATION)] = mRuleStore.getGeneration(table);
         } else {
-            mRemainingData -= expected;
-            clearOutgoingData();
+            mCursor[(short) (cursor + CURSOR_RECORD)] = 0;
+            mCursor[(short) (cursor + CURSOR_POSITION)] = offset;
+        }
+        mOutgoingData[channel] = data;
+    }
+
+    /*
+       Returns the rule table from which the specified outgoing data is written out, or null if
+       the outgoing data is a byte array.
+    */
+    private static RuleTable getRuleTable(Object data) {
+        if (data instanceof RuleBank) {
+            return ((RuleBank) data).getRules();
         }
+        if (data instanceof RuleTable) {
+            return (RuleTable) data;
+        }
+        return null;
     }
 
-    private void initiateOutgoingCase4(byte cla, byte[] data)
+    /*
+       Puts the tag and the length of the outgoing data object at the specified offset in the
+       header of the specified channel, and returns the size of the header.
+    */
+    private short setHeader(byte channel, short offset, short tag, short pages, short length) {
+        short header = (short) (channel * HEADER_SIZE);
+        Util.setShort(mHeader, (short) (header + offset), tag);
+        return (short) (Tlv.setLength(mHeader, (short) (header + offset + 2), pages, length)
+                - header);
+    }
+
+    private void clearOutgoingData(byte channel) {
+        short cursor = (short) (channel * CURSOR_SIZE);
+
+        mCursor[(short) (cursor + CURSOR_CLASS)] = 0x00;
+        mCursor[(short) (cursor + CURSOR_MODE)] = MODE_NONE;
+        mCursor[(short) (cursor + CURSOR_OFFSET)] = 0;
+        mCursor[(short) (cursor + CURSOR_PAGES)] = 0;
+        mCursor[(short) (cursor + CURSOR_LENGTH)] = 0;
+        mOutgoingData[channel] = null;
+    }
+
+    private void processGetDataSpecific(APDU apdu, byte channel) throws ISOException {
+        byte[] command = apdu.getBuffer();
+        short end = (short) (ISO7816.OFFSET_CDATA + apdu.setIncomingAndReceive());
+
+        // The command data shall consist of a single REF-DO.
+        if ((end <= ISO7816.OFFSET_CDATA) || (command[ISO7816.OFFSET_CDATA] != Tlv.TAG_REF_DO)) {
+            ISOException.throwIt(ISO7816.SW_WRONG_DATA);
+        }
+        short refDo = (short) (ISO7816.OFFSET_CDATA + 1);
+        short refValue = Tlv.getValueOffset(command, refDo);
+        if (Tlv.getEnd(command, refDo) != end) {
+            ISOException.throwIt(ISO7816.SW_WRONG_DATA);
+        }
+
+        short aid = Tlv.findTag(command, refValue, end, Tlv.TAG_AID_REF_DO);
+        short hash = Tlv.findTag(command, refValue, end, Tlv.TAG_DEVICE_APP_ID_REF_DO);
+        if ((aid == Tlv.NONE) || (hash == Tlv.NONE)) {
+            ISOException.throwIt(ISO7816.SW_WRONG_DATA);
+        }
+
+        byte[] arDo = mRuleStore.findArDo(command, aid, hash);
+        short length = (arDo != null) ? (short) arDo.length : 0;
+
+        /*
+           |Response-AR-DO|T|FF50 |
+           |              |L|xx   |
+           |              |V|AR-DO|
+
+           Only the tag and the length are put into the header. The AR-DO is sent directly
+           from the pool of the rule store.
+        */
+        initiateOutgoingCase4(apdu, channel,
+                setHeader(channel, (short) 0, GET_DATA_SPECIFIC, (short) 0, length), arDo,
+                (short) 0, (short) 0, length);
+    }
+
+    private void processStoreData(APDU apdu) throws ISOException {
+        byte[] command = apdu.getBuffer();
+        boolean last = (command[ISO7816.OFFSET_P1] & STORE_DATA_LAST_BLOCK) != 0;
+        short block = (short) (command[ISO7816.OFFSET_P2] & 0xFF);
+        short length = apdu.setIncomingAndReceive();
+
+        SecureChannel secureChannel = GPSystem.getSecureChannel();
+        if ((secureChannel.getSecurityLevel() & SECURITY_LEVEL_STORE_DATA)
+                != SECURITY_LEVEL_STORE_DATA) {
+            ISOException.throwIt(ISO7816.SW_SECURITY_STATUS_NOT_SATISFIED);
+        }
+        short end = secureChannel.unwrap(command, (short) 0,
+                (short) (ISO7816.OFFSET_CDATA + length));
+
+        /*
+           The single block (the last block numbered 0) updating a single REF-AR-DO at most is
+           applied to the active rules. The blocks of a sequence and the single block of several
+           updates are staged instead, and all of them become active at once with the last block.
+           The staged update is given up if any block fails or comes out of order, so that none
+           of it is applied.
+        */
+        if (block == 0) {
+            mRuleStore.endUpdate(false);
+            if (!last || !isSingleUpdate(command, ISO7816.OFFSET_CDATA, end)) {
+                mRuleStore.beginUpdate();
+            }
+        } else if (block != mNextBlock[0]) {
+            giveUpStoreData();
+            ISOException.throwIt(ISO7816.SW_CONDITIONS_NOT_SATISFIED);
+        }
+        mNextBlock[0] = 0;
+
+        try {
+            processStoreDataCommands(command, ISO7816.OFFSET_CDATA, end);
+        } catch (ISOException e) {
+            /*
+               The rule store may fail in the middle of its transaction, which would otherwise be
+               aborted after this and restore the staged update given up here.
+            */
+            if (JCSystem.getTransactionDepth() != 0) {
+                JCSystem.abortTransaction();
+            }
+            mRuleStore.endUpdate(false);
+            throw e;
+        }
+
+        if (!last) {
+            mNextBlock[0] = (short) (block + 1);
+            return;
+        }
+        mRuleStore.endUpdate(true);
+    }
+
+    /*
+       Gives up the staged update of STORE DATA, so that no block can continue it.
+    */
+    private void giveUpStoreData() {
+        mNextBlock[0] = 0;
+        mRuleStore.endUpdate(false);
+    }
+
+    /*
+       Returns true if the command data between the specified offsets is a single command which
+       updates a single REF-AR-DO at most, or is empty. Command-Delete of all of the REF-AR-DOs
+       or the ones of an AID updates any number of them, so it is not.
+    */
+    private static boolean isSingleUpdate(byte[] command, short offset, short end) {
+        if (offset >= end) {
+            return true;
+        }
+        if (Tlv.getEnd(command, (short) (offset + 1)) != end) {
+            return false;
+        }
+        short value = Tlv.getValueOffset(command, (short) (offset + 1));
+        switch (command[offset]) {
+            case Tlv.TAG_COMMAND_STORE_REF_AR_DO:
+                return (value >= end) || (Tlv.getEnd(command, (short) (value + 1)) >= end);
+
+            case Tlv.TAG_COMMAND_DELETE:
+                return (value < end) && ((command[value] == Tlv.TAG_REF_DO)
+                        || (command[value] == Tlv.TAG_REF_AR_DO));
+
+            default:
+                return true;
+        }
+    }
+
+    private void processStoreDataCommands(byte[] command, short offset, short end)
             throws ISOException {
-        mCurrentClass = cla;
-        mOutgoingData = data;
-        mDataOffset = 0;
+        /*
+           Each block of STORE DATA shall consist of complete command data objects.
 
-        short sw2 = (mOutgoingData.length < DATA_BUFFER_SIZE) ? (short) mOutgoingData.length : 0x00;
-        // Return SW 61xx for now as Le is unknown.
-        ISOException.throwIt((short) (ISO7816.SW_BYTES_REMAINING_00 + sw2));
+           |Command-Store-REF-AR-DO|T|F0        |
+           |                       |L|xx        |
+           |                       |V|REF-AR-DOs|
+
+           |Command-Delete         |T|F1                                 |
+           |                       |L|xx                                 |
+           |                       |V|REF-DO, AID-REF-DO, REF-AR-DO or none|
+
+           |Command-Register-Client-AIDs|T|F7                       |
+           |                            |L|xx                       |
+           |                            |V|AID-REF-DOs of the ARA-Cs|
+        */
+        while (offset < end) {
+            short value = Tlv.getValueOffset(command, (short) (offset + 1));
+            short next = Tlv.getEnd(command, (short) (offset + 1));
+            if ((next > end) || (next <= offset)) {
+                ISOException.throwIt(ISO7816.SW_WRONG_DATA);
+            }
+
+            switch (command[offset]) {
+                case Tlv.TAG_COMMAND_STORE_REF_AR_DO:
+                    while (value < next) {
+                        short refArDo = value;
+                        value = Tlv.getEnd(command, (short) (refArDo + 1));
+                        if ((value > next) || (value <= refArDo)) {
+                            ISOException.throwIt(ISO7816.SW_WRONG_DATA);
+                        }
+                        mRuleStore.store(command, refArDo);
+                    }
+                    break;
+
+                case Tlv.TAG_COMMAND_DELETE:
+                    processDelete(command, value, next);
+                    break;
+
+                case Tlv.TAG_COMMAND_REGISTER_CLIENT_AIDS:
+                    mClients.register(command, value, next);
+                    break;
+
+                default:
+                    ISOException.throwIt(ISO7816.SW_WRONG_DATA);
+                    break;
+            }
+            offset = next;
+        }
     }
 
-    private void clearOutgoingData() {
-        if (mCurrentClass != 0x00) {
-            mCurrentClass = 0x00;
+    private void processDelete(byte[] command, short offset, short end) throws ISOException {
+        if (offset == end) {
+            mRuleStore.deleteAll();
+            return;
         }
-        if (mOutgoingData != null) {
-            mOutgoingData = null;
+
+        short refDo = Tlv.NONE;
+        switch (command[offset]) {
+            case Tlv.TAG_AID_REF_DO:
+                refDo = (short) (offset + 1);
+                if (Tlv.getEnd(command, refDo) != end) {
+                    ISOException.throwIt(ISO7816.SW_WRONG_DATA);
+                }
+                mRuleStore.deleteAll(command, Tlv.getValueOffset(command, refDo),
+                        Tlv.getLength(command, refDo));
+                return;
+
+            case Tlv.TAG_REF_DO:
+                refDo = (short) (offset + 1);
+                break;
+
+            case Tlv.TAG_REF_AR_DO:
+                refDo = Tlv.findTag(command, Tlv.getValueOffset(command, (short) (offset + 1)),
+                        end, Tlv.TAG_REF_DO);
+                break;
+
+            default:
+                break;
         }
-        if (mDataOffset != 0) {
-            mDataOffset = 0;
+        if ((refDo == Tlv.NONE) || (Tlv.getEnd(command, refDo) > end)) {
+            ISOException.throwIt(ISO7816.SW_WRONG_DATA);
+        }
+
+        short refDoValue = Tlv.getValueOffset(command, refDo);
+        short refDoEnd = Tlv.getEnd(command, refDo);
+        short aid = Tlv.findTag(command, refDoValue, refDoEnd, Tlv.TAG_AID_REF_DO);
+        short hash = Tlv.findTag(command, refDoValue, refDoEnd, Tlv.TAG_DEVICE_APP_ID_REF_DO);
+        if ((aid == Tlv.NONE) || (hash == Tlv.NONE)) {
+            ISOException.throwIt(ISO7816.SW_WRONG_DATA);
         }
+
+        short rule = mRuleStore.find(command, aid, hash);
+        if (rule == RuleIndex.NONE) {
+            ISOException.throwIt(ISO7816.SW_RECORD_NOT_FOUND);
+        }
+        mRuleStore.delete(rule);
     }
 }
-
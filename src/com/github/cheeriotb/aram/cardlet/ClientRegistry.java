@@ -0,0 +1,309 @@
+/*
+ *  Copyright (C) 2018 cheeriotb <cheerio.the.bear@gmail.com>
+ *
+ *  This program is free software; you can redistribute it and/or modify
+ *  it under the terms of the GNU General Public License version 2 as
+ *  published by the Free Software Foundation.
+ *
+ *  This program is distributed in the hope that it will be useful,
+ *  but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *  GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License
+ *  along with this program; if not, write to the Free Software
+ *  Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston,
+ *  MA 02110-1301, USA.
+ */
+
+package com.github.cheeriotb.aram.cardlet;
+
+import javacard.framework.AID;
+import javacard.framework.ISO7816;
+import javacard.framework.ISOException;
+import javacard.framework.JCSystem;
+import javacard.framework.Shareable;
+import javacard.framework.Util;
+
+/*
+   Registry of ARA-Cs whose REF-AR-DOs are merged into the rules of the ARA-M.
+
+   Each ARA-C is kept with its AID, its state and the version whose REF-AR-DOs have been merged.
+   The REF-AR-DOs are merged by synchronize(), which asks every ARA-C for its version only once
+   and does nothing more unless any of them has changed. Otherwise the rules are staged in the
+   rule store as soon as any of them is actually replaced: the REF-AR-DOs of the ARA-Cs changed
+   are replaced with the ones taken from them again, and all of them become active at once with
+   a single update of the refresh tag. Neither the rules nor the refresh tag change if none of
+   them is replaced, for example when an ARA-C registered has turned out to be absent.
+   The rules sent to the callers are therefore always the merged ones kept in the rule store,
+   and no ARA-C is called while they are sent.
+
+   The REF-AR-DOs of the ARA-C numbered n (from 0) are stored for the owner n + 1. The ones
+   stored into the ARA-M itself take precedence over them, and so do the ones of the ARA-C
+   registered earlier for the same REF-DO. All of the REF-AR-DOs of the ARA-C are dropped if
+   any of them cannot be stored or the ARA-C throws any exception while giving them, until the
+   version of the ARA-C changes. The ARA-C throwing any exception for its version is regarded
+   as absent, so that a faulty ARA-C never makes SELECT of the ARA-M fail.
+*/
+final class ClientRegistry {
+    private static final short MIN_AID_LENGTH = 5;
+    private static final short MAX_AID_LENGTH = 16;
+
+    // The parameter passed to JCSystem.getAppletShareableInterfaceObject().
+    private static final byte PARAMETER = 0;
+
+    private static final byte STATE_NONE    = 0;
+    // Registered, but the REF-AR-DOs have not been merged yet.
+    private static final byte STATE_PENDING = 1;
+    // The REF-AR-DOs of the version kept have been merged.
+    private static final byte STATE_MERGED  = 2;
+    // Not installed or not providing the interface, so no REF-AR-DO has been merged.
+    private static final byte STATE_ABSENT  = 3;
+    // Unregistered, but the REF-AR-DOs merged so far have not been deleted yet.
+    private static final byte STATE_REMOVED = 4;
+
+    private RuleStore mRuleStore;
+
+    private Object[] mAids;
+    private byte[] mStates;
+    private short[] mVersions;
+
+    // The states and the versions to be kept once the merged rules become active, and the
+    // ARA-Cs asked for them, during synchronize().
+    private byte[] mNewStates;
+    private short[] mNewVersions;
+    private Object[] mInstances;
+
+    ClientRegistry(RuleStore ruleStore, short maxClients) {
+        mRuleStore = ruleStore;
+        mAids = new Object[maxClients];
+        mStates = new byte[maxClients];
+        mVersions = new short[maxClients];
+        mNewStates = JCSystem.makeTransientByteArray(maxClients, JCSystem.CLEAR_ON_RESET);
+        mNewVersions = JCSystem.makeTransientShortArray(maxClients, JCSystem.CLEAR_ON_RESET);
+        mInstances = JCSystem.makeTransientObjectArray(maxClients, JCSystem.CLEAR_ON_RESET);
+    }
+
+    /*
+       Registers the ARA-Cs whose AID-REF-DOs are placed one after another between the specified
+       offsets, and unregisters the other ones. The REF-AR-DOs of them are merged or deleted by
+       the next synchronize().
+    */
+    void register(byte[] data, short offset, short end) throws ISOException {
+        for (short aid = offset; aid < end; aid = Tlv.getEnd(data, (short) (aid + 1))) {
+            short length = Tlv.getLength(data, (short) (aid + 1));
+            if ((data[aid] != Tlv.TAG_AID_REF_DO) || (length < MIN_AID_LENGTH)
+                    || (length > MAX_AID_LENGTH)
+                    || (Tlv.getEnd(data, (short) (aid + 1)) > end)) {
+                ISOException.throwIt(ISO7816.SW_WRONG_DATA);
+            }
+        }
+
+        JCSystem.beginTransaction();
+        for (short client = 0; client < (short) mAids.length; client++) {
+            if ((mStates[client] != STATE_NONE)
+                    && (findAidRefDo(data, offset, end, client) == Tlv.NONE)) {
+                mStates[client] = STATE_REMOVED;
+            }
+        }
+        for (short aid = offset; aid < end; aid = Tlv.getEnd(data, (short) (aid + 1))) {
+            short value = Tlv.getValueOffset(data, (short) (aid + 1));
+            short length = Tlv.getLength(data, (short) (aid + 1));
+            short client = findClient(data, value, length);
+            if (client != Tlv.NONE) {
+                if (mStates[client] == STATE_REMOVED) {
+                    mStates[client] = STATE_PENDING;
+                }
+                continue;
+            }
+
+            for (client = 0; client < (short) mAids.length; client++) {
+                if (mStates[client] == STATE_NONE) {
+                    break;
+                }
+            }
+            if (client == (short) mAids.length) {
+                ISOException.throwIt(ISO7816.SW_FILE_FULL);
+            }
+            byte[] instance = new byte[length];
+            Util.arrayCopy(data, value, instance, (short) 0, length);
+            mAids[client] = instance;
+            mStates[client] = STATE_PENDING;
+        }
+        JCSystem.commitTransaction();
+    }
+
+    /*
+       Merges the REF-AR-DOs of the ARA-Cs changed since the last call into the rules, using the
+       specified global array from the specified offset to receive them. It shall not be called
+       while the rules are staged by STORE DATA.
+    */
+    void synchronize(byte[] buffer, short offset) {
+        boolean changed = false;
+        for (short client = 0; client < (short) mAids.length; client++) {
+            changed |= query(client);
+        }
+        if (!changed) {
+            return;
+        }
+
+        // The staged update left by STORE DATA given up is discarded before staging the rules.
+        mRuleStore.endUpdate(false);
+        for (short client = 0; client < (short) mAids.length; client++) {
+            if ((mNewStates[client] == mStates[client])
+                    && (mNewVersions[client] == mVersions[client])) {
+                continue;
+            }
+
+            byte owner = (byte) (client + 1);
+            deleteAll(owner);
+            if (mNewStates[client] == STATE_MERGED) {
+                try {
+                    merge((AraClient) mInstances[client], owner, buffer, offset);
+                } catch (Exception e) {
+                    // Any exception of the ARA-C drops its rules, as if it were absent.
+                    drop(owner);
+                }
+            }
+            mInstances[client] = null;
+        }
+        mRuleStore.endUpdate(true);
+
+        /*
+           The states are kept only after the merged rules have become active, so that the
+           ARA-Cs are merged again if the card is torn before that.
+        */
+        JCSystem.beginTransaction();
+        for (short client = 0; client < (short) mAids.length; client++) {
+            mStates[client] = mNewStates[client];
+            mVersions[client] = mNewVersions[client];
+            if (mStates[client] == STATE_NONE) {
+                mAids[client] = null;
+            }
+        }
+        JCSystem.commitTransaction();
+    }
+
+    /*
+       Asks the specified ARA-C for its version, and sets the state and the version to be kept
+       for it and the instance to take the REF-AR-DOs from. Returns true if it has changed.
+    */
+    private boolean query(short client) {
+        byte state = mStates[client];
+        mNewStates[client] = state;
+        mNewVersions[client] = mVersions[client];
+        mInstances[client] = null;
+        switch (state) {
+            case STATE_NONE:
+                return false;
+            case STATE_REMOVED:
+                mNewStates[client] = STATE_NONE;
+                return true;
+            default:
+                break;
+        }
+
+        mNewStates[client] = STATE_ABSENT;
+        try {
+            AraClient instance = getClient(client);
+            if (instance != null) {
+                mNewVersions[client] = instance.getVersion();
+                mNewStates[client] = STATE_MERGED;
+                mInstances[client] = instance;
+            }
+        } catch (Exception e) {
+            // The ARA-C failing to answer for any reason is regarded as absent.
+            mNewStates[client] = STATE_ABSENT;
+            mNewVersions[client] = mVersions[client];
+            mInstances[client] = null;
+        }
+        return (state == STATE_PENDING) || (mNewStates[client] != state)
+                || (mNewVersions[client] != mVersions[client]);
+    }
+
+    /*
+       Deletes all of the REF-AR-DOs stored for the specified owner, staging the rules first if
+       there is any of them.
+    */
+    private void deleteAll(byte owner) {
+        if (mRuleStore.contains(owner)) {
+            stage();
+            mRuleStore.deleteAll(owner);
+        }
+    }
+
+    /*
+       Drops all of the REF-AR-DOs of the ARA-C failing to give them.
+    */
+    private void drop(byte owner) {
+        // The rule store may fail in the middle of its transaction.
+        if (JCSystem.getTransactionDepth() != 0) {
+            JCSystem.abortTransaction();
+        }
+        deleteAll(owner);
+    }
+
+    private void stage() {
+        if (!mRuleStore.isStaging()) {
+            mRuleStore.beginUpdate();
+        }
+    }
+
+    private AraClient getClient(short client) {
+        byte[] aid = (byte[]) mAids[client];
+        AID instance = JCSystem.lookupAID(aid, (short) 0, (byte) aid.length);
+        if (instance == null) {
+            return null;
+        }
+        Shareable shareable = JCSystem.getAppletShareableInterfaceObject(instance, PARAMETER);
+        return (shareable instanceof AraClient) ? (AraClient) shareable : null;
+    }
+
+    private void merge(AraClient client, byte owner, byte[] buffer, short offset)
+            throws ISOException {
+        short maxLength = (short) (buffer.length - offset);
+        short maxRules = mRuleStore.getRules().getSize();
+        for (short index = 0; index < maxRules; index++) {
+            short length = client.getRefArDo(index, buffer, offset, maxLength);
+            if (length == 0) {
+                return;
+            }
+            if ((length < 0) || (length > maxLength)
+                    || (Tlv.getEnd(buffer, (short) (offset + 1)) != (short) (offset + length))) {
+                ISOException.throwIt(ISO7816.SW_WRONG_DATA);
+            }
+            stage();
+            mRuleStore.store(buffer, offset, owner);
+        }
+    }
+
+    /*
+       Returns the ARA-C registered for the specified AID, or Tlv.NONE if not registered.
+    */
+    private short findClient(byte[] data, short offset, short length) {
+        for (short client = 0; client < (short) mAids.length; client++) {
+            byte[] aid = (byte[]) mAids[client];
+            if ((mStates[client] != STATE_NONE) && ((short) aid.length == length)
+                    && (Util.arrayCompare(aid, (short) 0, data, offset, length) == 0)) {
+                return client;
+            }
+        }
+        return Tlv.NONE;
+    }
+
+    /*
+       Returns the offset of the AID-REF-DO of the specified ARA-C among the ones placed between
+       the specified offsets, or Tlv.NONE if not found.
+    */
+    private short findAidRefDo(byte[] data, short offset, short end, short client) {
+        byte[] aid = (byte[]) mAids[client];
+        for (; offset < end; offset = Tlv.getEnd(data, (short) (offset + 1))) {
+            short length = Tlv.getLength(data, (short) (offset + 1));
+            if (((short) aid.length == length) && (Util.arrayCompare(aid, (short) 0, data,
+                    Tlv.getValueOffset(data, (short) (offset + 1)), length) == 0)) {
+                return offset;
+            }
+        }
+        return Tlv.NONE;
+    }
+}
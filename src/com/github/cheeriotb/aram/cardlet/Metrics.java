@@ -0,0 +1,102 @@
+/*
+ *  Copyright (C) 2018 cheeriotb <cheerio.the.bear@gmail.com>
+ *
+ *  This program is free software; you can redistribute it and/or modify
+ *  it under the terms of the GNU General Public License version 2 as
+ *  published by the Free Software Foundation.
+ *
+ *  This program is distributed in the hope that it will be useful,
+ *  but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *  GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License
+ *  along with this program; if not, write to the Free Software
+ *  Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston,
+ *  MA 02110-1301, USA.
+ */
+
+package com.github.cheeriotb.aram.cardlet;
+
+import javacard.framework.ISO7816;
+import javacard.framework.JCSystem;
+import javacard.framework.Util;
+
+/*
+   Counters of the usage of the applet since the last reset of the card.
+
+   The counters are kept in the transient memory as big endian numbers of 2 bytes, which are
+   counted modulo 65536, except for the number of the bytes sent which has 4 bytes. They can
+   therefore be sent as they are. Each APDU updates a few of them at most: one for the command,
+   one for the status word other than 9000 and one for each call of APDU.sendBytes(), which is
+   made only once for the response fitting in the APDU buffer. No counter is kept in the
+   EEPROM, so no APDU writes the persistent memory for them.
+*/
+final class Metrics {
+    static final byte SELECT_FCI                  = 0;
+    static final byte SELECT_FCP                  = 1;
+    static final byte SELECT_FMD                  = 2;
+    static final byte SELECT_PROPRIETARY          = 3;
+    static final byte GET_DATA_ALL                = 4;
+    static final byte GET_DATA_SPECIFIC           = 5;
+    static final byte GET_DATA_NEXT               = 6;
+    static final byte GET_DATA_REFRESH_TAG        = 7;
+    static final byte GET_DATA_OTHERS             = 8;
+    static final byte GET_RESPONSE                = 9;
+    static final byte STORE_DATA                  = 10;
+    static final byte SW_BYTES_REMAINING          = 11;
+    static final byte SW_CORRECT_LENGTH           = 12;
+    static final byte SW_CONDITIONS_NOT_SATISFIED = 13;
+    static final byte BYTES_SENT                  = 14;
+
+    static final short LENGTH = (short) ((BYTES_SENT + 2) * 2);
+
+    private byte[] mCounters;
+
+    Metrics() {
+        mCounters = JCSystem.makeTransientByteArray(LENGTH, JCSystem.CLEAR_ON_RESET);
+    }
+
+    void count(byte counter) {
+        short offset = (short) (counter * 2);
+        Util.setShort(mCounters, offset, (short) (Util.getShort(mCounters, offset) + 1));
+    }
+
+    /*
+       Counts the status word thrown out of process().
+    */
+    void countStatus(short sw) {
+        switch ((short) (sw & 0xFF00)) {
+            case ISO7816.SW_BYTES_REMAINING_00:
+                count(SW_BYTES_REMAINING);
+                break;
+            case ISO7816.SW_CORRECT_LENGTH_00:
+                count(SW_CORRECT_LENGTH);
+                break;
+            default:
+                if (sw == ISO7816.SW_CONDITIONS_NOT_SATISFIED) {
+                    count(SW_CONDITIONS_NOT_SATISFIED);
+                }
+                break;
+        }
+    }
+
+    void countBytes(short length) {
+        short offset = (short) (BYTES_SENT * 2 + 2);
+        short low = Util.getShort(mCounters, offset);
+        short sum = (short) (low + length);
+        Util.setShort(mCounters, offset, sum);
+        // Carry into the upper 2 bytes if the lower 2 bytes wrap around.
+        if ((low < 0) && (sum >= 0)) {
+            count(BYTES_SENT);
+        }
+    }
+
+    void clear() {
+        Util.arrayFillNonAtomic(mCounters, (short) 0, LENGTH, (byte) 0);
+    }
+
+    byte[] getCounters() {
+        return mCounters;
+    }
+}
@@ -0,0 +1,96 @@
+/*
+ *  Copyright (C) 2018 cheeriotb <cheerio.the.bear@gmail.com>
+ *
+ *  This program is free software; you can redistribute it and/or modify
+ *  it under the terms of the GNU General Public License version 2 as
+ *  published by the Free Software Foundation.
+ *
+ *  This program is distributed in the hope that it will be useful,
+ *  but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *  GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License
+ *  along with this program; if not, write to the Free Software
+ *  Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston,
+ *  MA 02110-1301, USA.
+ */
+
+package com.github.cheeriotb.aram.cardlet;
+
+/*
+   Bank of rules, that is the slots of the REF-AR-DOs, the index over them and their total length.
+
+   The rule store has two banks. One of them is active and is sent to the callers, and the other
+   one receives the staged update of the rules until it is switched over to. The version is
+   counted up every time the bank is updated, so that the caller sending the rules from it can
+   tell whether they are still the same. The owner of each slot tells whether the REF-AR-DO has
+   been stored into the ARA-M itself or merged from an ARA-C.
+*/
+final class RuleBank {
+    private RuleTable mRules;
+    private RuleIndex mIndex;
+    private byte[] mOwners;
+    private short mTotalPages = 0;
+    private short mTotalLength = 0;
+    private short mVersion = 0;
+
+    RuleBank(short maxRules, short maxNodes) {
+        mRules = new RuleTable(maxRules);
+        mIndex = new RuleIndex(maxNodes, maxRules);
+        mOwners = new byte[maxRules];
+    }
+
+    RuleTable getRules() {
+        return mRules;
+    }
+
+    RuleIndex getIndex() {
+        return mIndex;
+    }
+
+    byte getOwner(short rule) {
+        return mOwners[rule];
+    }
+
+    void setOwner(short rule, byte owner) {
+        mOwners[rule] = owner;
+    }
+
+    short getTotalPages() {
+        return mTotalPages;
+    }
+
+    short getTotalLength() {
+        return mTotalLength;
+    }
+
+    /*
+       Adds the specified length to the total length, or subtracts it if it is negative.
+       The length shall be shorter than RuleStore.PAGE_SIZE.
+    */
+    void addLength(short length) {
+        short total = (short) (mTotalLength + length);
+        if (total >= RuleStore.PAGE_SIZE) {
+            total -= RuleStore.PAGE_SIZE;
+            mTotalPages++;
+        } else if (total < 0) {
+            total += RuleStore.PAGE_SIZE;
+            mTotalPages--;
+        }
+        mTotalLength = total;
+    }
+
+    void setLength(short pages, short length) {
+        mTotalPages = pages;
+        mTotalLength = length;
+    }
+
+    short getVersion() {
+        return mVersion;
+    }
+
+    void countUpVersion() {
+        mVersion++;
+    }
+}
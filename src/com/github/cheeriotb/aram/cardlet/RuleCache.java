@@ -0,0 +1,88 @@
+/*
+ *  Copyright (C) 2018 cheeriotb <cheerio.the.bear@gmail.com>
+ *
+ *  This program is free software; you can redistribute it and/or modify
+ *  it under the terms of the GNU General Public License version 2 as
+ *  published by the Free Software Foundation.
+ *
+ *  This program is distributed in the hope that it will be useful,
+ *  but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *  GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License
+ *  along with this program; if not, write to the Free Software
+ *  Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston,
+ *  MA 02110-1301, USA.
+ */
+
+package com.github.cheeriotb.aram.cardlet;
+
+import javacard.framework.JCSystem;
+
+/*
+   Cache of the slots of the REF-AR-DOs found lately by GET DATA [Specific].
+
+   The slots are kept in the transient memory from the one found most recently, and the slot
+   found again is moved to the front. The cache is valid only for the version of the bank from
+   which the slots have been found, and is cleared as soon as the bank is updated or another
+   bank becomes active. Each slot is kept as the number of the slot plus one so that the cache
+   cleared by the reset of the card has no slot.
+*/
+final class RuleCache {
+    private static final short BANK        = 0;
+    private static final short VERSION     = 1;
+    private static final short FIRST_ENTRY = 2;
+
+    private short[] mEntries;
+
+    RuleCache(short maxEntries) {
+        mEntries = JCSystem.makeTransientShortArray((short) (FIRST_ENTRY + maxEntries),
+                JCSystem.CLEAR_ON_RESET);
+    }
+
+    /*
+       Clears the cache unless it has been filled from the specified version of the bank.
+    */
+    void validate(short bank, short version) {
+        if ((mEntries[BANK] == bank) && (mEntries[VERSION] == version)) {
+            return;
+        }
+        for (short entry = FIRST_ENTRY; entry < (short) mEntries.length; entry++) {
+            mEntries[entry] = 0;
+        }
+        mEntries[BANK] = bank;
+        mEntries[VERSION] = version;
+    }
+
+    short getSize() {
+        return (short) (mEntries.length - FIRST_ENTRY);
+    }
+
+    /*
+       Returns the slot kept in the specified entry from the front, or RuleIndex.NONE.
+    */
+    short get(short index) {
+        return (short) (mEntries[(short) (FIRST_ENTRY + index)] - 1);
+    }
+
+    /*
+       Moves the slot kept in the specified entry to the front.
+    */
+    void moveToFront(short index) {
+        short entry = (short) (FIRST_ENTRY + index);
+        short slot = mEntries[entry];
+        for (; entry > FIRST_ENTRY; entry--) {
+            mEntries[entry] = mEntries[(short) (entry - 1)];
+        }
+        mEntries[FIRST_ENTRY] = slot;
+    }
+
+    /*
+       Puts the specified slot at the front, dropping the slot at the end.
+    */
+    void add(short rule) {
+        mEntries[(short) (mEntries.length - 1)] = (short) (rule + 1);
+        moveToFront((short) (getSize() - 1));
+    }
+}
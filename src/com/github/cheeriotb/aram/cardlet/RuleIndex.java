@@ -0,0 +1,195 @@
+/*
+ *  Copyright (C) 2018 cheeriotb <cheerio.the.bear@gmail.com>
+ *
+ *  This program is free software; you can redistribute it and/or modify
+ *  it under the terms of the GNU General Public License version 2 as
+ *  published by the Free Software Foundation.
+ *
+ *  This program is distributed in the hope that it will be useful,
+ *  but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *  GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License
+ *  along with this program; if not, write to the Free Software
+ *  Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston,
+ *  MA 02110-1301, USA.
+ */
+
+package com.github.cheeriotb.aram.cardlet;
+
+import javacard.framework.ISO7816;
+import javacard.framework.ISOException;
+
+/*
+   Trie over the values of AID-REF-DOs.
+
+   Each node represents one AID prefix and keeps the list of the rules whose AID-REF-DO is
+   exactly that prefix. The root node represents the empty AID-REF-DO (all applets).
+   Children are chained by the sibling links, so that a lookup only costs the walk over
+   the bytes of the requested AID, however many REF-AR-DOs share the same prefix.
+   Rules are identified by the numbers of the slots in which the rule store keeps them.
+   Nodes which no longer lead to any rule are chained by the sibling links for reuse.
+*/
+final class RuleIndex {
+    static final short NONE = (short) -1;
+
+    private static final short ROOT = 0;
+
+    private byte[] mNodeLabel;
+    private short[] mNodeChild;
+    private short[] mNodeSibling;
+    private short[] mNodeRule;
+    private short mNodeCount = 1;
+    private short mFreeNode = NONE;
+
+    private short[] mRuleNext;
+
+    RuleIndex(short maxNodes, short maxRules) {
+        mNodeLabel = new byte[maxNodes];
+        mNodeChild = new short[maxNodes];
+        mNodeSibling = new short[maxNodes];
+        mNodeRule = new short[maxNodes];
+        mRuleNext = new short[maxRules];
+
+        mNodeChild[ROOT] = NONE;
+        mNodeSibling[ROOT] = NONE;
+        mNodeRule[ROOT] = NONE;
+    }
+
+    /*
+       Unregisters all of the rules and releases all of the nodes.
+    */
+    void clear() {
+        mNodeCount = 1;
+        mFreeNode = NONE;
+        mNodeChild[ROOT] = NONE;
+        mNodeRule[ROOT] = NONE;
+    }
+
+    /*
+       Registers the rule kept in the specified slot for the specified AID.
+       Rules sharing the same AID are kept in the order of the registration.
+    */
+    void addRule(byte[] aid, short aidOffset, short aidLength, short rule) throws ISOException {
+        short node = ROOT;
+        for (short index = 0; index < aidLength; index++) {
+            byte label = aid[(short) (aidOffset + index)];
+            short child = findChild(node, label);
+            if (child == NONE) {
+                child = addChild(node, label);
+            }
+            node = child;
+        }
+
+        mRuleNext[rule] = NONE;
+        if (mNodeRule[node] == NONE) {
+            mNodeRule[node] = rule;
+        } else {
+            short last = mNodeRule[node];
+            while (mRuleNext[last] != NONE) {
+                last = mRuleNext[last];
+            }
+            mRuleNext[last] = rule;
+        }
+    }
+
+    /*
+       Unregisters the rule kept in the specified slot for the specified AID, and releases
+       the nodes which no longer lead to any rule.
+    */
+    void removeRule(byte[] aid, short aidOffset, short aidLength, short rule) {
+        // The branch from the cut node to the end of the AID can be released as a whole.
+        short parent = NONE;
+        short cut = NONE;
+
+        short node = ROOT;
+        for (short index = 0; index < aidLength; index++) {
+            short child = findChild(node, aid[(short) (aidOffset + index)]);
+            if (child == NONE) {
+                return;
+            }
+            if ((node == ROOT) || (mNodeRule[node] != NONE)
+                    || (mNodeChild[node] != child) || (mNodeSibling[child] != NONE)) {
+                parent = node;
+                cut = child;
+            }
+            node = child;
+        }
+
+        if (mNodeRule[node] == rule) {
+            mNodeRule[node] = mRuleNext[rule];
+        } else {
+            short previous = mNodeRule[node];
+            while ((previous != NONE) && (mRuleNext[previous] != rule)) {
+                previous = mRuleNext[previous];
+            }
+            if (previous == NONE) {
+                return;
+            }
+            mRuleNext[previous] = mRuleNext[rule];
+        }
+
+        if ((cut == NONE) || (mNodeRule[node] != NONE) || (mNodeChild[node] != NONE)) {
+            return;
+        }
+
+        if (mNodeChild[parent] == cut) {
+            mNodeChild[parent] = mNodeSibling[cut];
+        } else {
+            short previous = mNodeChild[parent];
+            while (mNodeSibling[previous] != cut) {
+                previous = mNodeSibling[previous];
+            }
+            mNodeSibling[previous] = mNodeSibling[cut];
+        }
+
+        while (cut != NONE) {
+            short next = mNodeChild[cut];
+            mNodeSibling[cut] = mFreeNode;
+            mFreeNode = cut;
+            cut = next;
+        }
+    }
+
+    /*
+       Returns the first rule registered exactly for the specified AID, or NONE.
+    */
+    short findFirstRule(byte[] aid, short aidOffset, short aidLength) {
+        short node = ROOT;
+        for (short index = 0; (index < aidLength) && (node != NONE); index++) {
+            node = findChild(node, aid[(short) (aidOffset + index)]);
+        }
+        return (node != NONE) ? mNodeRule[node] : NONE;
+    }
+
+    short getNextRule(short rule) {
+        return mRuleNext[rule];
+    }
+
+    private short findChild(short node, byte label) {
+        short child = mNodeChild[node];
+        while ((child != NONE) && (mNodeLabel[child] != label)) {
+            child = mNodeSibling[child];
+        }
+        return child;
+    }
+
+    private short addChild(short node, byte label) throws ISOException {
+        short child = mFreeNode;
+        if (child != NONE) {
+            mFreeNode = mNodeSibling[child];
+        } else if (mNodeCount < (short) mNodeLabel.length) {
+            child = mNodeCount++;
+        } else {
+            ISOException.throwIt(ISO7816.SW_FILE_FULL);
+        }
+
+        mNodeLabel[child] = label;
+        mNodeChild[child] = NONE;
+        mNodeRule[child] = NONE;
+        mNodeSibling[child] = mNodeChild[node];
+        mNodeChild[node] = child;
+        return child;
+    }
+}
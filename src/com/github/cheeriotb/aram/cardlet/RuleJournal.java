@@ -0,0 +1,81 @@
+/*
+ *  Copyright (C) 2018 cheeriotb <cheerio.the.bear@gmail.com>
+ *
+ *  This program is free software; you can redistribute it and/or modify
+ *  it under the terms of the GNU General Public License version 2 as
+ *  published by the Free Software Foundation.
+ *
+ *  This program is distributed in the hope that it will be useful,
+ *  but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *  GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License
+ *  along with this program; if not, write to the Free Software
+ *  Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston,
+ *  MA 02110-1301, USA.
+ */
+
+package com.github.cheeriotb.aram.cardlet;
+
+/*
+   Bounded journal of the latest updates of the rules.
+
+   Each update counts up the refresh tag by one, so the n-th entry from the newest one is the
+   update made n - 1 updates before the current refresh tag. An entry is either the rule which
+   was stored, or the rule without the AR-DO which was deleted. The entries are kept from the
+   oldest to the newest one, so that the entries since any refresh tag in the journal can be
+   sent directly from them just like the rules of the rule store.
+*/
+final class RuleJournal {
+    private RuleTable mEntries;
+    private short mCount = 0;
+
+    RuleJournal(short maxEntries) {
+        mEntries = new RuleTable(maxEntries);
+    }
+
+    boolean isFull() {
+        return mCount == mEntries.getSize();
+    }
+
+    /*
+       Appends the specified entry, dropping the oldest one if the journal is full.
+       It shall be called in the same transaction as the update of the refresh tag.
+    */
+    void add(short aid, short hash, short arDo) {
+        short last = (short) (mEntries.getSize() - 1);
+        for (short index = 0; index < last; index++) {
+            mEntries.copy((short) (index + 1), index);
+        }
+        mEntries.set(last, aid, hash, arDo);
+        if (mCount <= last) {
+            mCount++;
+        }
+    }
+
+    void clear() {
+        for (short index = 0; index < mEntries.getSize(); index++) {
+            mEntries.clear(index);
+        }
+        mCount = 0;
+    }
+
+    /*
+       Returns the number of the updates which can be sent from the journal.
+    */
+    short getCount() {
+        return mCount;
+    }
+
+    RuleTable getEntries() {
+        return mEntries;
+    }
+
+    /*
+       Returns the index of the first entry of the specified number of the latest updates.
+    */
+    short getFirst(short count) {
+        return (short) (mEntries.getSize() - count);
+    }
+}
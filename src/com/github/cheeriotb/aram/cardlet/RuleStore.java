@@ -0,0 +1,692 @@
+/*
+ *  Copyright (C) 2018 cheeriotb <cheerio.the.bear@gmail.com>
+ *
+ *  This program is free software; you can redistribute it and/or modify
+ *  it under the terms of the GNU General Public License version 2 as
+ *  published by the Free Software Foundation.
+ *
+ *  This program is distributed in the hope that it will be useful,
+ *  but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *  GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License
+ *  along with this program; if not, write to the Free Software
+ *  Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston,
+ *  MA 02110-1301, USA.
+ */
+
+package com.github.cheeriotb.aram.cardlet;
+
+import javacard.framework.ISO7816;
+import javacard.framework.ISOException;
+import javacard.framework.JCSystem;
+import javacard.framework.Util;
+
+/*
+   Persistent store of REF-AR-DOs.
+
+   The AIDs, the hashes of the certificates and the AR-DOs are kept in pools, and each REF-AR-DO
+   is kept in a slot of the rule table as the numbers of its values in the pools. The values
+   shared by many REF-AR-DOs, such as the AIDs of the CTS applets, are therefore kept only once.
+   The REF-AR-DOs are written out from the pools when they are sent.
+   Response-ALL-REF-AR-DO consists of the REF-AR-DOs in the order of the slots.
+
+   The total length of the REF-AR-DOs may exceed the range of short, so it is kept as the number
+   of pages of PAGE_SIZE bytes and the number of the rest of the bytes. Each REF-AR-DO is shorter
+   than a page, so the number of the pages never exceeds the number of the slots.
+
+   The slots are kept in two banks. Each update is usually made to the active bank in its own
+   transaction. An update made of many of them can be staged instead: the active bank is copied
+   into the other one, the updates are made to the copy, and then the copy becomes active in
+   a single transaction. Until then the callers only see the rules which they have seen so far,
+   and the callers in the middle of sending the rules of the previous bank can finish it.
+*/
+final class RuleStore {
+    static final short REFRESH_TAG_LENGTH = 8;
+    static final short REFRESH_TAG_DO_LENGTH = (short) (REFRESH_TAG_LENGTH + 3);
+
+    // Tlv.setLength() for the lengths given in pages depends on the size of the page.
+    static final short PAGE_SIZE = 0x1000;
+
+    // The owner of the REF-AR-DOs stored into the ARA-M itself. ARA-Cs are numbered from 1.
+    static final byte OWNER_ARA_M = 0;
+
+    private static final short REFRESH_TAG_OFFSET = 3;
+
+    // Tag and length (up to 3 bytes) of REF-AR-DO, and the tags and the lengths inside the REF-DO.
+    private static final short SCRATCH_SIZE = 10;
+
+    private static final short MAX_AID_LENGTH  = 16;
+    private static final short MAX_HASH_LENGTH = 32;
+
+    private RuleBank[] mBanks;
+    private byte mActiveBank = 0;
+    private boolean mStaging = false;
+
+    private ValuePool mAids;
+    private ValuePool mHashes;
+    private ValuePool mArDos;
+
+    /*
+       Response-Refresh-Tag-DO. The refresh tag is counted up as a big endian number in the same
+       transaction as every update of the rules.
+    */
+    private byte[] mRefreshTagDo;
+
+    private RuleJournal mJournal;
+    private RuleCache mCache;
+
+    // Tags and lengths of the data object being written out.
+    private byte[] mScratch;
+
+    /*
+       The values in the pools may still be referred to by the journal or the other bank after
+       they have been replaced, so the pools shall have some room for them.
+    */
+    RuleStore(short maxRules, short maxNodes, short maxJournalEntries, short maxAids,
+            short maxHashes, short maxArDos, short maxCachedRules) {
+        mBanks = new RuleBank[2];
+        mBanks[0] = new RuleBank(maxRules, maxNodes);
+        mBanks[1] = new RuleBank(maxRules, maxNodes);
+
+        mAids = new ValuePool(maxAids);
+        mHashes = new ValuePool(maxHashes);
+        mArDos = new ValuePool(maxArDos);
+
+        mRefreshTagDo = new byte[REFRESH_TAG_DO_LENGTH];
+        mRefreshTagDo[0] = (byte) 0xDF;
+        mRefreshTagDo[1] = (byte) 0x20;
+        mRefreshTagDo[2] = (byte) REFRESH_TAG_LENGTH;
+        mJournal = new RuleJournal(maxJournalEntries);
+        mCache = new RuleCache(maxCachedRules);
+
+        mScratch = JCSystem.makeTransientByteArray(SCRATCH_SIZE, JCSystem.CLEAR_ON_RESET);
+    }
+
+    /*
+       Stores the REF-AR-DOs placed one after another between the specified offsets.
+    */
+    void load(byte[] data, short offset, short end) throws ISOException {
+        while (offset < end) {
+            short next = Tlv.getEnd(data, (short) (offset + 1));
+            store(data, offset);
+            offset = next;
+        }
+    }
+
+    short store(byte[] data, short offset) throws ISOException {
+        return store(data, offset, OWNER_ARA_M);
+    }
+
+    /*
+       Stores the REF-AR-DO whose tag is placed at the specified offset into the bank being
+       updated for the specified owner. The REF-AR-DO having exactly the same REF-DO is replaced
+       in the same slot if it has already been stored. The one stored into the ARA-M itself
+       replaces the one of any owner, but the one of an ARA-C is not stored and RuleIndex.NONE
+       is returned if the REF-DO has been stored for another owner.
+       The REF-AR-DO shall consist of a REF-DO and an AR-DO, and the REF-DO shall consist of
+       an AID-REF-DO (4F) and a DeviceAppID-REF-DO in either order, which are kept and written
+       out in that order. The REF-DO of only one of them, or with the AID-REF-DO of the
+       implicitly selected application (C0), is rejected since the rules are indexed and
+       looked up by both of the values.
+    */
+    short store(byte[] data, short offset, byte owner) throws ISOException {
+        if (data[offset] != Tlv.TAG_REF_AR_DO) {
+            ISOException.throwIt(ISO7816.SW_WRONG_DATA);
+        }
+        short refArDo = (short) (offset + 1);
+        short refArDoValue = Tlv.getValueOffset(data, refArDo);
+        short refArDoEnd = Tlv.getEnd(data, refArDo);
+
+        short refDo = Tlv.findTag(data, refArDoValue, refArDoEnd, Tlv.TAG_REF_DO);
+        short arDo = Tlv.findTag(data, refArDoValue, refArDoEnd, Tlv.TAG_AR_DO);
+        if ((refDo == Tlv.NONE) || (arDo == Tlv.NONE)) {
+            ISOException.throwIt(ISO7816.SW_WRONG_DATA);
+        }
+        short refDoValue = Tlv.getValueOffset(data, refDo);
+        short refDoEnd = Tlv.getEnd(data, refDo);
+        short arDoEnd = Tlv.getEnd(data, arDo);
+        // Point at the tag of the AR-DO.
+        arDo--;
+
+        short aid = Tlv.findTag(data, refDoValue, refDoEnd, Tlv.TAG_AID_REF_DO);
+        short hash = Tlv.findTag(data, refDoValue, refDoEnd, Tlv.TAG_DEVICE_APP_ID_REF_DO);
+        if ((aid == Tlv.NONE) || (hash == Tlv.NONE)) {
+            ISOException.throwIt(ISO7816.SW_WRONG_DATA);
+        }
+        short aidLength = Tlv.getLength(data, aid);
+        short hashLength = Tlv.getLength(data, hash);
+        short length = getLength(aidLength, hashLength, (short) (arDoEnd - arDo));
+        if ((aidLength > MAX_AID_LENGTH) || (hashLength > MAX_HASH_LENGTH)
+                || ((short) (refDoEnd - refDoValue) != getRefDoLength(aidLength, hashLength))
+                || ((short) (refArDoEnd - refArDoValue)
+                        != (short) (refDoEnd - refDo + 1 + arDoEnd - arDo))
+                || (length < 0) || (length >= PAGE_SIZE)) {
+            ISOException.throwIt(ISO7816.SW_WRONG_DATA);
+        }
+
+        RuleBank bank = getUpdatedBank();
+        RuleTable rules = bank.getRules();
+        short rule = find(bank, data, aid, hash);
+        if (rule != RuleIndex.NONE) {
+            if ((owner != OWNER_ARA_M) && (bank.getOwner(rule) != owner)) {
+                return RuleIndex.NONE;
+            }
+            length -= getLength(rules, rule);
+        } else {
+            rule = findFreeSlot(rules);
+        }
+        if (rule == RuleIndex.NONE) {
+            ISOException.throwIt(ISO7816.SW_FILE_FULL);
+        }
+
+        boolean replaced = !rules.isEmpty(rule);
+        boolean released = false;
+        JCSystem.beginTransaction();
+        short aidIndex = mAids.add(data, Tlv.getValueOffset(data, aid), aidLength);
+        short hashIndex = mHashes.add(data, Tlv.getValueOffset(data, hash), hashLength);
+        short arDoIndex = mArDos.add(data, arDo, (short) (arDoEnd - arDo));
+        if (replaced) {
+            released = release(rules, rule);
+        } else {
+            bank.getIndex().addRule(data, Tlv.getValueOffset(data, aid), aidLength, rule);
+        }
+        rules.set(rule, aidIndex, hashIndex, arDoIndex);
+        bank.setOwner(rule, owner);
+        bank.addLength(length);
+        bank.countUpVersion();
+        if (!mStaging) {
+            released |= addJournalEntry(aidIndex, hashIndex, arDoIndex);
+            increment(mRefreshTagDo, REFRESH_TAG_OFFSET);
+        }
+        JCSystem.commitTransaction();
+
+        if (released) {
+            requestObjectDeletion();
+        }
+        return rule;
+    }
+
+    /*
+       Deletes the REF-AR-DO stored in the specified slot of the bank being updated.
+    */
+    void delete(short rule) {
+        RuleBank bank = getUpdatedBank();
+        RuleTable rules = bank.getRules();
+        short aidIndex = rules.getAid(rule);
+        short hashIndex = rules.getHash(rule);
+        byte[] aid = mAids.get(aidIndex);
+        boolean released = false;
+
+        JCSystem.beginTransaction();
+        bank.getIndex().removeRule(aid, (short) 0, (short) aid.length, rule);
+        bank.addLength((short) -getLength(rules, rule));
+        bank.countUpVersion();
+        if (!mStaging) {
+            released = addJournalEntry(aidIndex, hashIndex, RuleTable.NONE);
+            increment(mRefreshTagDo, REFRESH_TAG_OFFSET);
+        }
+        released |= release(rules, rule);
+        rules.clear(rule);
+        JCSystem.commitTransaction();
+
+        if (released) {
+            requestObjectDeletion();
+        }
+    }
+
+    /*
+       Deletes all of the REF-AR-DOs stored for the specified AID.
+    */
+    void deleteAll(byte[] aid, short aidOffset, short aidLength) {
+        RuleIndex index = getUpdatedBank().getIndex();
+        short rule;
+        while ((rule = index.findFirstRule(aid, aidOffset, aidLength)) != RuleIndex.NONE) {
+            delete(rule);
+        }
+    }
+
+    /*
+       Deletes all of the REF-AR-DOs. Each REF-AR-DO is deleted in its own transaction so that
+       the commit buffer never overflows.
+    */
+    void deleteAll() {
+        RuleTable rules = getUpdatedBank().getRules();
+        for (short rule = 0; rule < rules.getSize(); rule++) {
+            if (!rules.isEmpty(rule)) {
+                delete(rule);
+            }
+        }
+    }
+
+    /*
+       Deletes all of the REF-AR-DOs stored for the specified owner.
+    */
+    void deleteAll(byte owner) {
+        RuleBank bank = getUpdatedBank();
+        RuleTable rules = bank.getRules();
+        for (short rule = 0; rule < rules.getSize(); rule++) {
+            if (!rules.isEmpty(rule) && (bank.getOwner(rule) == owner)) {
+                delete(rule);
+            }
+        }
+    }
+
+    /*
+       Returns true if any REF-AR-DO is stored for the specified owner in the bank being updated.
+    */
+    boolean contains(byte owner) {
+        RuleBank bank = getUpdatedBank();
+        RuleTable rules = bank.getRules();
+        for (short rule = 0; rule < rules.getSize(); rule++) {
+            if (!rules.isEmpty(rule) && (bank.getOwner(rule) == owner)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /*
+       Returns the slot of the REF-AR-DO having exactly the same AID-REF-DO and
+       DeviceAppID-REF-DO as the specified ones in the bank being updated, or RuleIndex.NONE
+       if not found.
+    */
+    short find(byte[] reference, short aid, short hash) {
+        return find(getUpdatedBank(), reference, aid, hash);
+    }
+
+    /*
+       Returns the AR-DO (tag, length and value) of the active REF-AR-DO having exactly the same
+       AID-REF-DO and DeviceAppID-REF-DO as the specified ones, or null if not found.
+       The REF-AR-DOs found lately are compared first, so that the same REF-AR-DO requested
+       again is found without searching the pool of the hashes and the index.
+    */
+    byte[] findArDo(byte[] reference, short aid, short hash) {
+        RuleBank bank = mBanks[mActiveBank];
+        RuleTable rules = bank.getRules();
+        short aidOffset = Tlv.getValueOffset(reference, aid);
+        short aidLength = Tlv.getLength(reference, aid);
+        short hashOffset = Tlv.getValueOffset(reference, hash);
+        short hashLength = Tlv.getLength(reference, hash);
+
+        mCache.validate(mActiveBank, bank.getVersion());
+        short rule;
+        for (short index = 0; index < mCache.getSize(); index++) {
+            rule = mCache.get(index);
+            if (rule == RuleIndex.NONE) {
+                break;
+            }
+            if (mHashes.matches(rules.getHash(rule), reference, hashOffset, hashLength)
+                    && mAids.matches(rules.getAid(rule), reference, aidOffset, aidLength)) {
+                mCache.moveToFront(index);
+                return mArDos.get(rules.getArDo(rule));
+            }
+        }
+
+        rule = find(bank, reference, aid, hash);
+        if (rule == RuleIndex.NONE) {
+            return null;
+        }
+        mCache.add(rule);
+        return mArDos.get(rules.getArDo(rule));
+    }
+
+    /*
+       Returns the active bank so that the REF-AR-DOs registered for an AID can be written out
+       following its index.
+    */
+    RuleBank getActiveBank() {
+        return mBanks[mActiveBank];
+    }
+
+    /*
+       Returns the slots of the active bank so that Response-ALL-REF-AR-DO can be written out
+       from them. The empty slots shall be skipped.
+    */
+    RuleTable getRules() {
+        return mBanks[mActiveBank].getRules();
+    }
+
+    /*
+       Returns the number of the whole pages of Response-ALL-REF-AR-DO (value only).
+    */
+    short getTotalPages() {
+        return mBanks[mActiveBank].getTotalPages();
+    }
+
+    /*
+       Returns the number of the bytes of Response-ALL-REF-AR-DO (value only) beyond the whole
+       pages, which is always less than PAGE_SIZE.
+    */
+    short getTotalLength() {
+        return mBanks[mActiveBank].getTotalLength();
+    }
+
+    /*
+       Starts the staged update. The active bank is copied into the other bank slot by slot,
+       and the following updates are made to the copy until endUpdate() is called. The staged
+       update made so far is discarded if any.
+    */
+    void beginUpdate() {
+        mStaging = false;
+        RuleBank active = mBanks[mActiveBank];
+        RuleTable from = active.getRules();
+        RuleBank bank = mBanks[(byte) (mActiveBank ^ 1)];
+        RuleTable to = bank.getRules();
+        RuleIndex index = bank.getIndex();
+        boolean released = false;
+
+        JCSystem.beginTransaction();
+        bank.countUpVersion();
+        index.clear();
+        bank.setLength(getTotalPages(), getTotalLength());
+        JCSystem.commitTransaction();
+
+        // Each slot is copied in its own transaction so that the commit buffer never overflows.
+        for (short rule = 0; rule < to.getSize(); rule++) {
+            JCSystem.beginTransaction();
+            if (!to.isEmpty(rule)) {
+                released |= release(to, rule);
+            }
+            to.set(rule, from.getAid(rule), from.getHash(rule), from.getArDo(rule));
+            bank.setOwner(rule, active.getOwner(rule));
+            if (!from.isEmpty(rule)) {
+                byte[] aid = mAids.get(from.getAid(rule));
+                addReferences(from.getAid(rule), from.getHash(rule), from.getArDo(rule));
+                index.addRule(aid, (short) 0, (short) aid.length, rule);
+            }
+            JCSystem.commitTransaction();
+        }
+        mStaging = true;
+
+        if (released) {
+            requestObjectDeletion();
+        }
+    }
+
+    /*
+       Ends the staged update. The bank to which the updates have been made becomes active if
+       specified, and the refresh tag is counted up only once for all of them. The journal is
+       cleared since the updates are not recorded in it one by one. Otherwise the staged update
+       is discarded, and the following updates are made to the active bank again.
+    */
+    void endUpdate(boolean commit) {
+        if (!mStaging) {
+            return;
+        }
+        if (!commit) {
+            mStaging = false;
+            return;
+        }
+
+        JCSystem.beginTransaction();
+        mActiveBank ^= 1;
+        mStaging = false;
+        increment(mRefreshTagDo, REFRESH_TAG_OFFSET);
+        boolean released = clearJournal();
+        JCSystem.commitTransaction();
+
+        if (released) {
+            requestObjectDeletion();
+        }
+    }
+
+    boolean isStaging() {
+        return mStaging;
+    }
+
+    /*
+       Returns the length of the data object written out for the specified entry of the table,
+       or 0 if the entry is not in use.
+    */
+    short getLength(RuleTable table, short index) {
+        if (table.isEmpty(index)) {
+            return 0;
+        }
+        short arDo = table.getArDo(index);
+        return getLength((short) mAids.get(table.getAid(index)).length,
+                (short) mHashes.get(table.getHash(index)).length,
+                (short) ((arDo != RuleTable.NONE) ? mArDos.get(arDo).length : 0));
+    }
+
+    /*
+       Returns the total length of the data objects written out for the entries from the
+       specified one. It shall be used only for the tables small enough such as the journal.
+    */
+    short getLength(RuleTable table, short first, short end) {
+        short length = 0;
+        for (short index = first; index < end; index++) {
+            length += getLength(table, index);
+        }
+        return length;
+    }
+
+    /*
+       Writes out the specified part of the data object for the specified entry of the table at
+       the specified offset of the buffer, and returns the offset next to the part. The entry in
+       use is written out as REF-AR-DO, or as Command-Delete containing the REF-DO if it has no
+       AR-DO. The data object is never written out as a whole, so that it can be sent from any
+       byte without any buffer other than the destination.
+    */
+    short write(RuleTable table, short index, short from, byte[] buffer, short offset,
+            short length) {
+        byte[] aid = mAids.get(table.getAid(index));
+        byte[] hash = mHashes.get(table.getHash(index));
+        byte[] arDo = null;
+        short refDoLength = getRefDoLength((short) aid.length, (short) hash.length);
+
+        /*
+           |REF-AR-DO|T|E2 or F1 (Command-Delete)                                |
+           |         |L|xx                                                       |
+           |         |V|REF-DO|T|E1                                              |
+           |         | |      |L|xx                                              |
+           |         | |      |V|AID-REF-DO        |T|4F|DeviceAppID-REF-DO|T|C1 |
+           |         | |      | |                  |L|xx|                  |L|xx |
+           |         | |      | |                  |V|..|                  |V|...|
+           |         | |AR-DO (only for REF-AR-DO)                           |
+
+           The tags and the lengths are put into the scratch, and the values are sent from the
+           pools as they are.
+        */
+        short header;
+        if (table.getArDo(index) != RuleTable.NONE) {
+            arDo = mArDos.get(table.getArDo(index));
+            mScratch[0] = Tlv.TAG_REF_AR_DO;
+            header = Tlv.setLength(mScratch, (short) 1,
+                    (short) (2 + refDoLength + arDo.length));
+        } else {
+            mScratch[0] = Tlv.TAG_COMMAND_DELETE;
+            header = Tlv.setLength(mScratch, (short) 1, (short) (2 + refDoLength));
+        }
+        mScratch[header++] = Tlv.TAG_REF_DO;
+        mScratch[header++] = (byte) refDoLength;
+        mScratch[header++] = Tlv.TAG_AID_REF_DO;
+        mScratch[header++] = (byte) aid.length;
+        mScratch[header] = Tlv.TAG_DEVICE_APP_ID_REF_DO;
+        mScratch[(short) (header + 1)] = (byte) hash.length;
+
+        short end = (short) (from + length);
+        short position = copy(mScratch, (short) 0, header, (short) 0, from, end, buffer, offset);
+        position = copy(aid, (short) 0, (short) aid.length, position, from, end, buffer, offset);
+        position = copy(mScratch, header, (short) 2, position, from, end, buffer, offset);
+        position = copy(hash, (short) 0, (short) hash.length, position, from, end, buffer,
+                offset);
+        if (arDo != null) {
+            copy(arDo, (short) 0, (short) arDo.length, position, from, end, buffer, offset);
+        }
+        return (short) (offset + length);
+    }
+
+    byte[] getRefreshTagDo() {
+        return mRefreshTagDo;
+    }
+
+    /*
+       Sets the refresh tag placed at the specified offset. The journal is cleared since the
+       updates made so far can no longer be told by the refresh tags.
+    */
+    void setRefreshTag(byte[] data, short offset) {
+        JCSystem.beginTransaction();
+        Util.arrayCopy(data, offset, mRefreshTagDo, REFRESH_TAG_OFFSET, REFRESH_TAG_LENGTH);
+        clearJournal();
+        JCSystem.commitTransaction();
+    }
+
+    /*
+       Returns the number which changes every time the specified table is updated, that is the
+       version of the bank for the slots, or the lower 2 bytes of the refresh tag for the journal.
+    */
+    short getGeneration(RuleTable table) {
+        for (byte bank = 0; bank < (byte) mBanks.length; bank++) {
+            if (mBanks[bank].getRules() == table) {
+                return mBanks[bank].getVersion();
+            }
+        }
+        return Util.getShort(mRefreshTagDo, (short) (REFRESH_TAG_DO_LENGTH - 2));
+    }
+
+    RuleJournal getJournal() {
+        return mJournal;
+    }
+
+    /*
+       Returns the number of the updates made since the refresh tag placed at the specified
+       offset, or NONE if the journal does not cover all of them. The specified refresh tag is
+       counted up while it is compared with the current one.
+    */
+    short getUpdateCount(byte[] tag, short offset) {
+        for (short count = 0; count <= mJournal.getCount(); count++) {
+            if (Util.arrayCompare(tag, offset, mRefreshTagDo, REFRESH_TAG_OFFSET,
+                    REFRESH_TAG_LENGTH) == 0) {
+                return count;
+            }
+            increment(tag, offset);
+        }
+        return RuleIndex.NONE;
+    }
+
+    /*
+       Appends the specified entry to the journal with its own references to the values.
+       Returns true if any value is released with the oldest entry dropped from the journal.
+    */
+    private boolean addJournalEntry(short aid, short hash, short arDo) {
+        boolean released = false;
+        if (mJournal.isFull()) {
+            released = release(mJournal.getEntries(), (short) 0);
+        }
+        addReferences(aid, hash, arDo);
+        mJournal.add(aid, hash, arDo);
+        return released;
+    }
+
+    /*
+       Releases all of the entries of the journal. Returns true if any value is released from
+       the pools. It shall be called in a transaction.
+    */
+    private boolean clearJournal() {
+        RuleTable entries = mJournal.getEntries();
+        boolean released = false;
+        for (short index = 0; index < entries.getSize(); index++) {
+            if (!entries.isEmpty(index)) {
+                released |= release(entries, index);
+            }
+        }
+        mJournal.clear();
+        return released;
+    }
+
+    private void addReferences(short aid, short hash, short arDo) {
+        mAids.addReference(aid);
+        mHashes.addReference(hash);
+        if (arDo != RuleTable.NONE) {
+            mArDos.addReference(arDo);
+        }
+    }
+
+    /*
+       Releases the references to the values from the specified entry of the table.
+       Returns true if any value is released from the pools.
+    */
+    private boolean release(RuleTable table, short index) {
+        boolean released = mAids.release(table.getAid(index));
+        released |= mHashes.release(table.getHash(index));
+        short arDo = table.getArDo(index);
+        if (arDo != RuleTable.NONE) {
+            released |= mArDos.release(arDo);
+        }
+        return released;
+    }
+
+    private RuleBank getUpdatedBank() {
+        return mBanks[mStaging ? (byte) (mActiveBank ^ 1) : mActiveBank];
+    }
+
+    private short find(RuleBank bank, byte[] reference, short aid, short hash) {
+        short hashIndex = mHashes.find(reference, Tlv.getValueOffset(reference, hash),
+                Tlv.getLength(reference, hash));
+        if (hashIndex == ValuePool.NONE) {
+            return RuleIndex.NONE;
+        }
+
+        RuleTable rules = bank.getRules();
+        RuleIndex index = bank.getIndex();
+        short rule = index.findFirstRule(reference, Tlv.getValueOffset(reference, aid),
+                Tlv.getLength(reference, aid));
+        for (; rule != RuleIndex.NONE; rule = index.getNextRule(rule)) {
+            if (rules.getHash(rule) == hashIndex) {
+                return rule;
+            }
+        }
+        return RuleIndex.NONE;
+    }
+
+    private static short findFreeSlot(RuleTable rules) {
+        for (short rule = 0; rule < rules.getSize(); rule++) {
+            if (rules.isEmpty(rule)) {
+                return rule;
+            }
+        }
+        return RuleIndex.NONE;
+    }
+
+    /*
+       Copies the part of the source which is placed at the specified position of the data object
+       and is in the range from the specified offset to the specified end of the data object.
+       Returns the position next to the source.
+    */
+    private static short copy(byte[] source, short sourceOffset, short sourceLength,
+            short position, short from, short end, byte[] buffer, short offset) {
+        short start = (position > from) ? position : from;
+        short stop = (short) (position + sourceLength);
+        stop = (stop < end) ? stop : end;
+        if (start < stop) {
+            Util.arrayCopyNonAtomic(source, (short) (sourceOffset + start - position), buffer,
+                    (short) (offset + start - from), (short) (stop - start));
+        }
+        return (short) (position + sourceLength);
+    }
+
+    private static short getRefDoLength(short aidLength, short hashLength) {
+        return (short) (4 + aidLength + hashLength);
+    }
+
+    private static short getLength(short aidLength, short hashLength, short arDoLength) {
+        short length = (short) (2 + getRefDoLength(aidLength, hashLength) + arDoLength);
+        return (short) (1 + Tlv.getLengthSize(length) + length);
+    }
+
+    private static void increment(byte[] tag, short offset) {
+        for (short index = (short) (offset + REFRESH_TAG_LENGTH - 1); index >= offset; index--) {
+            if (++tag[index] != 0) {
+                break;
+            }
+        }
+    }
+
+    private static void requestObjectDeletion() {
+        if (JCSystem.isObjectDeletionSupported()) {
+            JCSystem.requestObjectDeletion();
+        }
+    }
+}
@@ -0,0 +1,85 @@
+/*
+ *  Copyright (C) 2018 cheeriotb <cheerio.the.bear@gmail.com>
+ *
+ *  This program is free software; you can redistribute it and/or modify
+ *  it under the terms of the GNU General Public License version 2 as
+ *  published by the Free Software Foundation.
+ *
+ *  This program is distributed in the hope that it will be useful,
+ *  but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *  GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License
+ *  along with this program; if not, write to the Free Software
+ *  Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston,
+ *  MA 02110-1301, USA.
+ */
+
+package com.github.cheeriotb.aram.cardlet;
+
+import javacard.framework.Util;
+
+/*
+   Table of rules.
+
+   Each entry consists of the numbers of the AID-REF-DO value, the DeviceAppID-REF-DO value and
+   the AR-DO in the pools of the rule store. The AR-DO is NONE for the rule which has been deleted,
+   and all of them are NONE for the entry which is not in use. The numbers are kept in a byte each
+   as unsigned numbers, so the pools shall not have more than 255 values.
+*/
+final class RuleTable {
+    static final short NONE = (short) -1;
+
+    private static final byte ENTRY_AID   = 0;
+    private static final byte ENTRY_HASH  = 1;
+    private static final byte ENTRY_AR_DO = 2;
+    private static final byte ENTRY_SIZE  = 3;
+
+    private byte[] mEntries;
+
+    RuleTable(short maxEntries) {
+        mEntries = new byte[(short) (maxEntries * ENTRY_SIZE)];
+        Util.arrayFillNonAtomic(mEntries, (short) 0, (short) mEntries.length, (byte) NONE);
+    }
+
+    short getSize() {
+        return (short) (mEntries.length / ENTRY_SIZE);
+    }
+
+    boolean isEmpty(short index) {
+        return getAid(index) == NONE;
+    }
+
+    short getAid(short index) {
+        return get((short) (index * ENTRY_SIZE + ENTRY_AID));
+    }
+
+    short getHash(short index) {
+        return get((short) (index * ENTRY_SIZE + ENTRY_HASH));
+    }
+
+    short getArDo(short index) {
+        return get((short) (index * ENTRY_SIZE + ENTRY_AR_DO));
+    }
+
+    void set(short index, short aid, short hash, short arDo) {
+        short entry = (short) (index * ENTRY_SIZE);
+        mEntries[(short) (entry + ENTRY_AID)] = (byte) aid;
+        mEntries[(short) (entry + ENTRY_HASH)] = (byte) hash;
+        mEntries[(short) (entry + ENTRY_AR_DO)] = (byte) arDo;
+    }
+
+    void clear(short index) {
+        set(index, NONE, NONE, NONE);
+    }
+
+    void copy(short from, short to) {
+        set(to, getAid(from), getHash(from), getArDo(from));
+    }
+
+    private short get(short offset) {
+        byte value = mEntries[offset];
+        return (value == (byte) NONE) ? NONE : (short) (value & 0xFF);
+    }
+}
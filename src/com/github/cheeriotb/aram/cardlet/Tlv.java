@@ -0,0 +1,126 @@
+/*
+ *  Copyright (C) 2018 cheeriotb <cheerio.the.bear@gmail.com>
+ *
+ *  This program is free software; you can redistribute it and/or modify
+ *  it under the terms of the GNU General Public License version 2 as
+ *  published by the Free Software Foundation.
+ *
+ *  This program is distributed in the hope that it will be useful,
+ *  but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *  GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License
+ *  along with this program; if not, write to the Free Software
+ *  Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston,
+ *  MA 02110-1301, USA.
+ */
+
+package com.github.cheeriotb.aram.cardlet;
+
+import javacard.framework.ISO7816;
+import javacard.framework.ISOException;
+import javacard.framework.Util;
+
+/*
+   Helpers for the BER-TLV data objects defined in Global Platform Secure Element Access Control.
+   All of the offsets passed to and returned from those helpers are the offsets of length fields.
+   The tag of the data object is always the byte preceding the length field since only the data
+   objects with 1 byte tag are nested in REF-AR-DOs.
+*/
+final class Tlv {
+    static final short NONE = (short) -1;
+
+    static final byte TAG_REF_AR_DO            = (byte) 0xE2;
+    static final byte TAG_REF_DO               = (byte) 0xE1;
+    static final byte TAG_AR_DO                = (byte) 0xE3;
+    static final byte TAG_AID_REF_DO           = (byte) 0x4F;
+    static final byte TAG_DEVICE_APP_ID_REF_DO = (byte) 0xC1;
+
+    static final byte TAG_COMMAND_STORE_REF_AR_DO      = (byte) 0xF0;
+    static final byte TAG_COMMAND_DELETE               = (byte) 0xF1;
+    static final byte TAG_COMMAND_REGISTER_CLIENT_AIDS = (byte) 0xF7;
+
+    private Tlv() {
+    }
+
+    /*
+       Returns the offset of the length field of the first data object with the specified tag
+       among the data objects between the specified offsets, or NONE if not found.
+    */
+    static short findTag(byte[] data, short offset, short end, byte tag) throws ISOException {
+        while (offset < end) {
+            short found = (short) (offset + 1);
+            offset = getEnd(data, found);
+            if ((offset > end) || (offset < found)) {
+                ISOException.throwIt(ISO7816.SW_WRONG_DATA);
+            }
+            if (data[(short) (found - 1)] == tag) {
+                return found;
+            }
+        }
+        return NONE;
+    }
+
+    static short getLength(byte[] data, short offset) throws ISOException {
+        switch (data[offset]) {
+            case (byte) 0x81:
+                return (short) (data[(short) (offset + 1)] & 0xFF);
+            case (byte) 0x82:
+                return Util.getShort(data, (short) (offset + 1));
+            default:
+                if (data[offset] < 0) {
+                    ISOException.throwIt(ISO7816.SW_WRONG_DATA);
+                }
+                return data[offset];
+        }
+    }
+
+    static short getValueOffset(byte[] data, short offset) {
+        switch (data[offset]) {
+            case (byte) 0x81:
+                return (short) (offset + 2);
+            case (byte) 0x82:
+                return (short) (offset + 3);
+            default:
+                return (short) (offset + 1);
+        }
+    }
+
+    static short getEnd(byte[] data, short offset) throws ISOException {
+        return (short) (getValueOffset(data, offset) + getLength(data, offset));
+    }
+
+    static short setLength(byte[] data, short offset, short length) {
+        if (length > 0xFF) {
+            data[offset++] = (byte) 0x82;
+            return Util.setShort(data, offset, length);
+        }
+        if (length > 0x7F) {
+            data[offset++] = (byte) 0x81;
+        }
+        data[offset++] = (byte) length;
+        return offset;
+    }
+
+    /*
+       Puts the length given as the number of pages of RuleStore.PAGE_SIZE (4096) bytes and the
+       number of the rest of the bytes, which may exceed the range of short.
+    */
+    static short setLength(byte[] data, short offset, short pages, short length) {
+        if (pages == 0) {
+            return setLength(data, offset, length);
+        }
+        if (pages > 0x0F) {
+            data[offset++] = (byte) 0x83;
+            data[offset++] = (byte) (pages >> 4);
+        } else {
+            data[offset++] = (byte) 0x82;
+        }
+        return Util.setShort(data, offset, (short) ((pages << 12) | length));
+    }
+
+    static short getLengthSize(short length) {
+        return (short) ((length > 0xFF) ? 3 : ((length > 0x7F) ? 2 : 1));
+    }
+}
@@ -0,0 +1,92 @@
+/*
+ *  Copyright (C) 2018 cheeriotb <cheerio.the.bear@gmail.com>
+ *
+ *  This program is free software; you can redistribute it and/or modify
+ *  it under the terms of the GNU General Public License version 2 as
+ *  published by the Free Software Foundation.
+ *
+ *  This program is distributed in the hope that it will be useful,
+ *  but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *  GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License
+ *  along with this program; if not, write to the Free Software
+ *  Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston,
+ *  MA 02110-1301, USA.
+ */
+
+package com.github.cheeriotb.aram.cardlet;
+
+import javacard.framework.ISO7816;
+import javacard.framework.JCSystem;
+import javacard.framework.Util;
+
+/*
+   Ring buffer of the latest commands and their status words for the diagnostics.
+
+   |Entries|1 byte       |Index of the oldest entry (the next entry to be written)|
+   |       |ENTRY_SIZE...|CLA, INS, P1, P2, P3, SW1 and SW2 of each command        |
+
+   The status word is 0000 until the command has been processed, or if it has been terminated
+   by an exception other than ISOException. The entries are kept in the transient memory, so
+   no command writes the EEPROM for them. If specified, they are also copied into the EEPROM
+   when a command fails with the status word which the caller may not recover from by itself,
+   only at the first time after the reset of the card so that the EEPROM is not worn out.
+*/
+final class Trace {
+    static final short MAX_ENTRIES = 16;
+    static final short ENTRY_SIZE  = 7;
+    static final short LENGTH      = (short) (1 + MAX_ENTRIES * ENTRY_SIZE);
+
+    private static final short HEADER_LENGTH = 5;
+
+    private byte[] mEntries;
+    private byte[] mSnapshot = null;
+    private boolean[] mSaved;
+
+    Trace(boolean persistent) {
+        mEntries = JCSystem.makeTransientByteArray(LENGTH, JCSystem.CLEAR_ON_RESET);
+        mSaved = JCSystem.makeTransientBooleanArray((short) 1, JCSystem.CLEAR_ON_RESET);
+        if (persistent) {
+            mSnapshot = new byte[LENGTH];
+        }
+    }
+
+    /*
+       Records the header of the command in the APDU buffer, which shall be called before it
+       is overwritten by the response.
+    */
+    void begin(byte[] buffer) {
+        short index = mEntries[0];
+        short entry = (short) (1 + index * ENTRY_SIZE);
+        Util.arrayCopyNonAtomic(buffer, ISO7816.OFFSET_CLA, mEntries, entry, HEADER_LENGTH);
+        Util.setShort(mEntries, (short) (entry + HEADER_LENGTH), (short) 0);
+        mEntries[0] = (byte) ((short) (index + 1) % MAX_ENTRIES);
+    }
+
+    /*
+       Records the status word of the command recorded last.
+    */
+    void end(short sw) {
+        short index = (short) ((short) (mEntries[0] + MAX_ENTRIES - 1) % MAX_ENTRIES);
+        Util.setShort(mEntries, (short) (1 + index * ENTRY_SIZE + HEADER_LENGTH), sw);
+
+        if ((mSnapshot != null) && !mSaved[0] && ((sw == ISO7816.SW_CONDITIONS_NOT_SATISFIED)
+                || (sw == ISO7816.SW_CLA_NOT_SUPPORTED))) {
+            Util.arrayCopyNonAtomic(mEntries, (short) 0, mSnapshot, (short) 0, LENGTH);
+            mSaved[0] = true;
+        }
+    }
+
+    byte[] getEntries() {
+        return mEntries;
+    }
+
+    /*
+       Returns the entries copied into the EEPROM, or null if they are never copied.
+    */
+    byte[] getSnapshot() {
+        return mSnapshot;
+    }
+}
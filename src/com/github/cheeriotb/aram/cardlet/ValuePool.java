@@ -0,0 +1,107 @@
+/*
+ *  Copyright (C) 2018 cheeriotb <cheerio.the.bear@gmail.com>
+ *
+ *  This program is free software; you can redistribute it and/or modify
+ *  it under the terms of the GNU General Public License version 2 as
+ *  published by the Free Software Foundation.
+ *
+ *  This program is distributed in the hope that it will be useful,
+ *  but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *  GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License
+ *  along with this program; if not, write to the Free Software
+ *  Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston,
+ *  MA 02110-1301, USA.
+ */
+
+package com.github.cheeriotb.aram.cardlet;
+
+import javacard.framework.ISO7816;
+import javacard.framework.ISOException;
+import javacard.framework.Util;
+
+/*
+   Pool of distinct byte strings such as AIDs and hashes of certificates.
+
+   Each distinct value is kept only once in its own byte array however many rules refer to it,
+   and is identified by the number of the entry. The entry is released when the last reference
+   to it is released. The pool shall be updated in the transaction of the rule store.
+*/
+final class ValuePool {
+    static final short NONE = (short) -1;
+
+    private Object[] mValues;
+    private short[] mReferences;
+
+    ValuePool(short maxValues) {
+        mValues = new Object[maxValues];
+        mReferences = new short[maxValues];
+    }
+
+    /*
+       Returns the entry having exactly the same value as the specified one, or NONE.
+    */
+    short find(byte[] data, short offset, short length) {
+        for (short index = 0; index < (short) mValues.length; index++) {
+            if (matches(index, data, offset, length)) {
+                return index;
+            }
+        }
+        return NONE;
+    }
+
+    /*
+       Returns true if the specified entry has exactly the same value as the specified one.
+    */
+    boolean matches(short index, byte[] data, short offset, short length) {
+        byte[] value = (byte[]) mValues[index];
+        return (value != null) && ((short) value.length == length)
+                && (Util.arrayCompare(value, (short) 0, data, offset, length) == 0);
+    }
+
+    /*
+       Returns the entry having the specified value with a new reference to it. The value is
+       added to the pool unless it has already been kept.
+    */
+    short add(byte[] data, short offset, short length) throws ISOException {
+        short index = find(data, offset, length);
+        if (index == NONE) {
+            for (index = 0; index < (short) mValues.length; index++) {
+                if (mValues[index] == null) {
+                    break;
+                }
+            }
+            if (index == (short) mValues.length) {
+                ISOException.throwIt(ISO7816.SW_FILE_FULL);
+            }
+
+            // The new array is not reachable until it is put into the entry.
+            byte[] value = new byte[length];
+            Util.arrayCopyNonAtomic(data, offset, value, (short) 0, length);
+            mValues[index] = value;
+        }
+        mReferences[index]++;
+        return index;
+    }
+
+    void addReference(short index) {
+        mReferences[index]++;
+    }
+
+    /*
+       Releases a reference to the specified entry. Returns true if the entry is released.
+    */
+    boolean release(short index) {
+        if (--mReferences[index] != 0) {
+            return false;
+        }
+        mValues[index] = null;
+        return true;
+    }
+
+    byte[] get(short index) {
+        return (byte[]) mValues[index];
+    }
+}
@@ -0,0 +1,564 @@
+/*
+ *  Copyright (C) 2018 cheeriotb <cheerio.the.bear@gmail.com>
+ *
+ *  This program is free software; you can redistribute it and/or modify
+ *  it under the terms of the GNU General Public License version 2 as
+ *  published by the Free Software Foundation.
+ *
+ *  This program is distributed in the hope that it will be useful,
+ *  but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *  GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License
+ *  along with this program; if not, write to the Free Software
+ *  Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston,
+ *  MA 02110-1301, USA.
+ */
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/*
+   Compiler of the access rules stored at the installation.
+
+   Reads the rule file and writes out the Java source of RuleProfiles, which has the array of
+   the REF-AR-DOs for each profile with the lengths computed and the comments in the same
+   format as the other sources. It runs on the host with JDK 11 or later as a single source
+   file program, see the rules target of the make file:
+
+       java tools/RuleCompiler.java <rule file> <Java source>
+
+   The rule file consists of the following lines. Anything following # is a comment.
+
+       profile <NAME>        Starts the REF-AR-DOs of PROFILE_<NAME>, kept in <NAME>_REF_AR_DOS.
+       group <text>          Starts a group of REF-AR-DOs described by the text in the comment.
+                             The following group lines continue the description.
+       rule <field>=<value>  Adds a REF-AR-DO with the following fields.
+
+       aid=<hex>|*           AID-REF-DO (* for the one not specified, required)
+       hash=<hex>|*          DeviceAppID-REF-DO (* for the one not specified, required)
+       apdu=always|never|<header>/<mask>[,<header>/<mask>...]
+                             APDU-AR-DO with the APDU filters of 4 bytes each if any
+       nfc=always|never      NFC-AR-DO
+       perm=<hex>            PERM-AR-DO of 8 bytes
+
+   The rule store keeps only one REF-AR-DO for each REF-DO, so a rule having the same REF-DO as
+   an earlier one in the same profile is merged into it: their APDU filters are joined into one
+   APDU-AR-DO, leaving out the ones already there. They are merged only if both of them have
+   APDU filters and the same NFC-AR-DO and PERM-AR-DO, and any other pair, such as the one of
+   which either has apdu=always or apdu=never, is a conflict reported as an error, so that no
+   access is widened or narrowed silently. The profiles are installed together, and a rule
+   having the same REF-DO as one in another profile is an error as well, since the later one
+   would replace the earlier one on card.
+
+   The tests of the compiler in tools/rules-test are run with the rules-test target of the make
+   file. Each <name>.txt there with <name>.err shall fail with the message in it, in which the
+   rule file is named without its directory, and the others shall compile into <name>.java.
+*/
+public final class RuleCompiler {
+    private static final int TAG_REF_AR_DO            = 0xE2;
+    private static final int TAG_REF_DO               = 0xE1;
+    private static final int TAG_AR_DO                = 0xE3;
+    private static final int TAG_AID_REF_DO           = 0x4F;
+    private static final int TAG_DEVICE_APP_ID_REF_DO = 0xC1;
+    private static final int TAG_APDU_AR_DO           = 0xD0;
+    private static final int TAG_NFC_AR_DO            = 0xD1;
+    private static final int TAG_PERM_AR_DO           = 0xDB;
+
+    private static final int MIN_AID_LENGTH  = 5;
+    private static final int MAX_AID_LENGTH  = 16;
+    private static final int MAX_HASH_LENGTH = 32;
+    private static final int FILTER_LENGTH   = 4;
+    private static final int PERM_LENGTH     = 8;
+
+    private static final int NONE   = -1;
+    private static final int NEVER  = 0;
+    private static final int ALWAYS = 1;
+
+    private static final int BYTES_PER_LINE = 6;
+    private static final int VALUE_WIDTH    = 40;
+
+    private static final String LICENSE =
+            "/*\n"
+            + " *  Copyright (C) 2018 cheeriotb <cheerio.the.bear@gmail.com>\n"
+            + " *\n"
+            + " *  This program is free software; you can redistribute it and/or modify\n"
+            + " *  it under the terms of the GNU General Public License version 2 as\n"
+            + " *  published by the Free Software Foundation.\n"
+            + " *\n"
+            + " *  This program is distributed in the hope that it will be useful,\n"
+            + " *  but WITHOUT ANY WARRANTY; without even the implied warranty of\n"
+            + " *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the\n"
+            + " *  GNU General Public License for more details.\n"
+            + " *\n"
+            + " *  You should have received a copy of the GNU General Public License\n"
+            + " *  along with this program; if not, write to the Free Software\n"
+            + " *  Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston,\n"
+            + " *  MA 02110-1301, USA.\n"
+            + " */\n";
+
+    private static final class Rule {
+        byte[] mAid;
+        byte[] mHash;
+        int mApdu = NONE;
+        List<byte[]> mFilters = new ArrayList<>();
+        int mNfc = NONE;
+        byte[] mPerm;
+        String mProfile;
+        int mLine;
+
+        String getKey() {
+            return "aid=" + ((mAid.length != 0) ? hex(mAid) : "*")
+                    + " hash=" + ((mHash.length != 0) ? hex(mHash) : "*");
+        }
+    }
+
+    private static final class Group {
+        List<String> mDescription = new ArrayList<>();
+        List<Rule> mRules = new ArrayList<>();
+    }
+
+    private static final class Profile {
+        String mName;
+        List<Group> mGroups = new ArrayList<>();
+        List<Rule> mRules = new ArrayList<>();
+    }
+
+    private final List<Profile> mProfiles = new ArrayList<>();
+    private final Map<String, Rule> mRules = new LinkedHashMap<>();
+    private final String mSource;
+
+    private RuleCompiler(String source) {
+        mSource = source;
+    }
+
+    public static void main(String[] args) throws IOException {
+        if (args.length != 2) {
+            System.err.println("usage: java RuleCompiler.java <rule file> <Java source>");
+            System.exit(2);
+        }
+        RuleCompiler compiler = new RuleCompiler(args[0]);
+        try {
+            compiler.parse(Files.readAllLines(Paths.get(args[0]), StandardCharsets.UTF_8));
+        } catch (IllegalArgumentException e) {
+            System.err.println(e.getMessage());
+            System.exit(1);
+        }
+        Files.write(Paths.get(args[1]), compiler.generate().getBytes(StandardCharsets.UTF_8));
+    }
+
+    private void parse(List<String> lines) {
+        Profile profile = null;
+        Group group = null;
+        boolean describing = false;
+        for (int number = 1; number <= lines.size(); number++) {
+            String line = lines.get(number - 1);
+            int comment = line.indexOf('#');
+            if (comment >= 0) {
+                line = line.substring(0, comment);
+            }
+            line = line.trim();
+            if (line.isEmpty()) {
+                continue;
+            }
+
+            String[] words = line.split("\\s+", 2);
+            String rest = (words.length > 1) ? words[1] : "";
+            switch (words[0]) {
+                case "profile":
+                    if (!rest.matches("[A-Z][A-Z0-9_]*")) {
+                        throw error(number, "invalid profile name: " + rest);
+                    }
+                    profile = new Profile();
+                    profile.mName = rest;
+                    mProfiles.add(profile);
+                    group = null;
+                    describing = false;
+                    break;
+
+                case "group":
+                    if (profile == null) {
+                        throw error(number, "group outside profile");
+                    }
+                    if (!describing) {
+                        group = new Group();
+                        profile.mGroups.add(group);
+                        describing = true;
+                    }
+                    group.mDescription.add(rest);
+                    break;
+
+                case "rule":
+                    if (group == null) {
+                        throw error(number, "rule outside group");
+                    }
+                    describing = false;
+                    Rule rule = parseRule(number, rest);
+                    rule.mProfile = profile.mName;
+                    Rule first = mRules.putIfAbsent(rule.getKey(), rule);
+                    if (first != null) {
+                        if (!first.mProfile.equals(rule.mProfile)) {
+                            throw error(number, "duplicate REF-DO " + rule.getKey()
+                                    + " of the rule at line " + first.mLine + " in PROFILE_"
+                                    + first.mProfile);
+                        }
+                        if (!merge(first, rule)) {
+                            throw error(number, "conflicting REF-DO " + rule.getKey()
+                                    + " of the rule at line " + first.mLine);
+                        }
+                        break;
+                    }
+                    profile.mRules.add(rule);
+                    group.mRules.add(rule);
+                    break;
+
+                default:
+                    throw error(number, "unknown keyword: " + words[0]);
+            }
+        }
+    }
+
+    private Rule parseRule(int number, String fields) {
+        Rule rule = new Rule();
+        rule.mLine = number;
+        for (String field : fields.split("\\s+")) {
+            int separator = field.indexOf('=');
+            if (separator <= 0) {
+                throw error(number, "invalid field: " + field);
+            }
+            String name = field.substring(0, separator);
+            String value = field.substring(separator + 1);
+            switch (name) {
+                case "aid":
+                    rule.mAid = value.equals("*") ? new byte[0] : parseHex(number, value);
+                    if ((rule.mAid.length != 0) && ((rule.mAid.length < MIN_AID_LENGTH)
+                            || (rule.mAid.length > MAX_AID_LENGTH))) {
+                        throw error(number, "invalid length of AID: " + value);
+                    }
+                    break;
+
+                case "hash":
+                    rule.mHash = value.equals("*") ? new byte[0] : parseHex(number, value);
+                    if (rule.mHash.length > MAX_HASH_LENGTH) {
+                        throw error(number, "invalid length of hash: " + value);
+                    }
+                    break;
+
+                case "apdu":
+                    if (value.equals("always") || value.equals("never")) {
+                        rule.mApdu = value.equals("always") ? ALWAYS : NEVER;
+                        break;
+                    }
+                    for (String filter : value.split(",")) {
+                        String[] parts = filter.split("/");
+                        if (parts.length != 2) {
+                            throw error(number, "invalid APDU filter: " + filter);
+                        }
+                        byte[] header = parseHex(number, parts[0]);
+                        byte[] mask = parseHex(number, parts[1]);
+                        if ((header.length != FILTER_LENGTH) || (mask.length != FILTER_LENGTH)) {
+                            throw error(number, "invalid APDU filter: " + filter);
+                        }
+                        byte[] pair = Arrays.copyOf(header, FILTER_LENGTH * 2);
+                        System.arraycopy(mask, 0, pair, FILTER_LENGTH, FILTER_LENGTH);
+                        rule.mFilters.add(pair);
+                    }
+                    // The filters are encoded in place of Never.
+                    rule.mApdu = NEVER;
+                    break;
+
+                case "nfc":
+                    if (!value.equals("always") && !value.equals("never")) {
+                        throw error(number, "invalid NFC access: " + value);
+                    }
+                    rule.mNfc = value.equals("always") ? ALWAYS : NEVER;
+                    break;
+
+                case "perm":
+                    rule.mPerm = parseHex(number, value);
+                    if (rule.mPerm.length != PERM_LENGTH) {
+                        throw error(number, "invalid length of permissions: " + value);
+                    }
+                    break;
+
+                default:
+                    throw error(number, "unknown field: " + name);
+            }
+        }
+        if ((rule.mAid == null) || (rule.mHash == null)) {
+            throw error(number, "aid and hash are required");
+        }
+        if ((rule.mApdu == NONE) && (rule.mNfc == NONE) && (rule.mPerm == null)) {
+            throw error(number, "no access rule");
+        }
+        return rule;
+    }
+
+    /*
+       Joins the APDU filters of the rule into the earlier one having the same REF-DO. Returns
+       false without changing it if they have no APDU filters or different NFC-AR-DOs or
+       PERM-AR-DOs.
+    */
+    private static boolean merge(Rule first, Rule rule) {
+        if (first.mFilters.isEmpty() || rule.mFilters.isEmpty() || (first.mNfc != rule.mNfc)
+                || !Arrays.equals(first.mPerm, rule.mPerm)) {
+            return false;
+        }
+        for (byte[] filter : rule.mFilters) {
+            if (first.mFilters.stream().noneMatch(known -> Arrays.equals(known, filter))) {
+                first.mFilters.add(filter);
+            }
+        }
+        return true;
+    }
+
+    private IllegalArgumentException error(int number, String message) {
+        return new IllegalArgumentException(mSource + ":" + number + ": " + message);
+    }
+
+    private String generate() {
+        StringBuilder out = new StringBuilder(LICENSE);
+        out.append("\npackage com.github.cheeriotb.aram.cardlet;\n\n");
+        out.append("/*\n");
+        out.append("   REF-AR-DOs stored at the installation for each profile.\n\n");
+        out.append("   This file is generated from " + mSource.replaceFirst("^\\./", "")
+                + " by tools/RuleCompiler.java with\n");
+        out.append("   the rules target of the make file. Do not edit it by hand.\n");
+        out.append("*/\n");
+        out.append("final class RuleProfiles {\n");
+        for (Profile profile : mProfiles) {
+            int count = profile.mRules.size();
+            out.append("    // The REF-AR-DO" + ((count != 1) ? "s" : "")
+                    + " stored at the installation for PROFILE_" + profile.mName + ".\n");
+            out.append("    static final byte[] " + profile.mName + "_REF_AR_DOS = {\n");
+            boolean firstGroup = true;
+            List<Group> groups = new ArrayList<>(profile.mGroups);
+            groups.removeIf(group -> group.mRules.isEmpty());
+            for (int index = 0; index < groups.size(); index++) {
+                if (!firstGroup) {
+                    out.append("\n");
+                }
+                firstGroup = false;
+                generateGroup(out, groups.get(index), index == groups.size() - 1);
+            }
+            out.append("    };\n\n");
+        }
+        out.append("    private RuleProfiles() {\n");
+        out.append("    }\n");
+        out.append("}\n");
+        return out.toString();
+    }
+
+    private static void generateGroup(StringBuilder out, Group group, boolean last) {
+        List<String[]> rows = new ArrayList<>();
+        for (Rule rule : group.mRules) {
+            describe(rule, rows);
+        }
+
+        int width = VALUE_WIDTH;
+        for (String[] row : rows) {
+            width = Math.max(width, row[6].length());
+        }
+        out.append("        /*\n");
+        for (String line : group.mDescription) {
+            out.append(line.isEmpty() ? "\n" : "           " + line + "\n");
+        }
+        out.append("\n");
+        int[] widths = { 9, 1, 6, 1, 18, 1, width };
+        for (String[] row : rows) {
+            out.append("           |");
+            for (int column = 0; column < widths.length; column++) {
+                out.append(String.format("%-" + widths[column] + "s|", row[column]));
+            }
+            out.append("\n");
+        }
+        out.append("        */\n");
+
+        // Each REF-AR-DO starts on its own line.
+        for (int rule = 0; rule < group.mRules.size(); rule++) {
+            byte[] bytes = encode(group.mRules.get(rule));
+            boolean end = last && (rule == group.mRules.size() - 1);
+            for (int offset = 0; offset < bytes.length; offset += BYTES_PER_LINE) {
+                out.append("       ");
+                for (int index = offset; index < Math.min(offset + BYTES_PER_LINE, bytes.length);
+                        index++) {
+                    out.append(String.format(" (byte) 0x%02X", bytes[index] & 0xFF));
+                    if (!end || (index != bytes.length - 1)) {
+                        out.append(",");
+                    }
+                }
+                out.append("\n");
+            }
+        }
+    }
+
+    private static byte[] encode(Rule rule) {
+        byte[] refDo = tlv(TAG_REF_DO, concat(tlv(TAG_AID_REF_DO, rule.mAid),
+                tlv(TAG_DEVICE_APP_ID_REF_DO, rule.mHash)));
+        return tlv(TAG_REF_AR_DO, concat(refDo, tlv(TAG_AR_DO, encodeArDo(rule))));
+    }
+
+    private static byte[] encodeArDo(Rule rule) {
+        byte[] arDo = new byte[0];
+        if (rule.mApdu != NONE) {
+            arDo = concat(arDo, tlv(TAG_APDU_AR_DO, getApduValue(rule)));
+        }
+        if (rule.mNfc != NONE) {
+            arDo = concat(arDo, tlv(TAG_NFC_AR_DO, new byte[] { (byte) rule.mNfc }));
+        }
+        if (rule.mPerm != null) {
+            arDo = concat(arDo, tlv(TAG_PERM_AR_DO, rule.mPerm));
+        }
+        return arDo;
+    }
+
+    private static byte[] getApduValue(Rule rule) {
+        if ((rule.mApdu == ALWAYS) || rule.mFilters.isEmpty()) {
+            return new byte[] { (byte) rule.mApdu };
+        }
+        byte[] value = new byte[0];
+        for (byte[] filter : rule.mFilters) {
+            value = concat(value, filter);
+        }
+        return value;
+    }
+
+    /*
+       Appends the rows of the comment for the REF-AR-DO, such as:
+
+       |REF-AR-DO|T|E2    | |                  | |        |
+       |         |L|xx    | |                  | |        |
+       |         |V|REF-DO|T|E1                | |        |
+       |         | |      |L|xx                | |        |
+       |         | |      |V|AID-REF-DO        |T|4F      |
+       ...
+    */
+    private static void describe(Rule rule, List<String[]> rows) {
+        byte[] arDo = encodeArDo(rule);
+        byte[] refDoValue = concat(tlv(TAG_AID_REF_DO, rule.mAid),
+                tlv(TAG_DEVICE_APP_ID_REF_DO, rule.mHash));
+        int refArDoLength = tlv(TAG_REF_DO, refDoValue).length + tlv(TAG_AR_DO, arDo).length;
+
+        rows.add(row("REF-AR-DO", "T", hex(TAG_REF_AR_DO), "", "", "", ""));
+        rows.add(row("", "L", length(refArDoLength), "", "", "", ""));
+        rows.add(row("", "V", "REF-DO", "T", hex(TAG_REF_DO), "", ""));
+        rows.add(row("", "", "", "L", length(refDoValue.length), "", ""));
+        describe("V", "AID-REF-DO", TAG_AID_REF_DO, rule.mAid, hex(rule.mAid), rows);
+        describe("", "DeviceAppID-REF-DO", TAG_DEVICE_APP_ID_REF_DO, rule.mHash,
+                hex(rule.mHash), rows);
+
+        rows.add(row("", "", "AR-DO", "T", hex(TAG_AR_DO), "", ""));
+        rows.add(row("", "", "", "L", length(arDo.length), "", ""));
+        String first = "V";
+        if (rule.mApdu != NONE) {
+            byte[] value = getApduValue(rule);
+            if (value.length == 1) {
+                describe(first, "APDU-AR-DO", TAG_APDU_AR_DO, value, describeAccess(value[0]),
+                        rows);
+            } else {
+                describe(first, "APDU-AR-DO", TAG_APDU_AR_DO, value, null, rows);
+                for (int index = 0; index < rule.mFilters.size(); index++) {
+                    byte[] filter = rule.mFilters.get(index);
+                    rows.add(row("", "", "", "", "", (index == 0) ? "V" : "",
+                            hex(Arrays.copyOf(filter, FILTER_LENGTH)) + " / "
+                            + hex(Arrays.copyOfRange(filter, FILTER_LENGTH, FILTER_LENGTH * 2))));
+                }
+            }
+            first = "";
+        }
+        if (rule.mNfc != NONE) {
+            describe(first, "NFC-AR-DO", TAG_NFC_AR_DO, new byte[1],
+                    describeAccess((byte) rule.mNfc), rows);
+            first = "";
+        }
+        if (rule.mPerm != null) {
+            describe(first, "PERM-AR-DO", TAG_PERM_AR_DO, rule.mPerm, hex(rule.mPerm), rows);
+        }
+    }
+
+    /*
+       Appends the rows of the data object nested in the REF-DO or the AR-DO. The row of the
+       value is omitted if the value is null, and so is the value which is not specified.
+    */
+    private static void describe(String mark, String name, int tag, byte[] value, String text,
+            List<String[]> rows) {
+        rows.add(row("", "", "", mark, name, "T", hex(tag)));
+        if (value.length == 0) {
+            rows.add(row("", "", "", "", "", "L", "00 (Not Specified)"));
+            return;
+        }
+        rows.add(row("", "", "", "", "", "L", length(value.length)));
+        if (text != null) {
+            rows.add(row("", "", "", "", "", "V", text));
+        }
+    }
+
+    private static String describeAccess(byte access) {
+        return hex(access) + ((access == ALWAYS) ? " (Always)" : " (Never)");
+    }
+
+    private static String[] row(String... cells) {
+        return cells;
+    }
+
+    private static byte[] tlv(int tag, byte[] value) {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        out.write(tag);
+        byte[] length = encodeLength(value.length);
+        out.write(length, 0, length.length);
+        out.write(value, 0, value.length);
+        return out.toByteArray();
+    }
+
+    private static byte[] encodeLength(int length) {
+        if (length > 0xFF) {
+            return new byte[] { (byte) 0x82, (byte) (length >> 8), (byte) length };
+        }
+        if (length > 0x7F) {
+            return new byte[] { (byte) 0x81, (byte) length };
+        }
+        return new byte[] { (byte) length };
+    }
+
+    private static String length(int length) {
+        return hex(encodeLength(length));
+    }
+
+    private static byte[] concat(byte[] first, byte[] second) {
+        byte[] result = Arrays.copyOf(first, first.length + second.length);
+        System.arraycopy(second, 0, result, first.length, second.length);
+        return result;
+    }
+
+    private byte[] parseHex(int number, String text) {
+        if (!text.matches("([0-9A-Fa-f]{2})+")) {
+            throw error(number, "invalid hex string: " + text);
+        }
+        byte[] bytes = new byte[text.length() / 2];
+        for (int index = 0; index < bytes.length; index++) {
+            bytes[index] = (byte) Integer.parseInt(text.substring(index * 2, index * 2 + 2), 16);
+        }
+        return bytes;
+    }
+
+    private static String hex(int value) {
+        return String.format("%02X", value & 0xFF);
+    }
+
+    private static String hex(byte[] bytes) {
+        StringBuilder text = new StringBuilder();
+        for (byte value : bytes) {
+            text.append(hex(value));
+        }
+        return text.toString();
+    }
+}
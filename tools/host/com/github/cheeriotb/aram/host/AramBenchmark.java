@@ -0,0 +1,292 @@
+/*
+ *  Copyright (C) 2018 cheeriotb <cheerio.the.bear@gmail.com>
+ *
+ *  This program is free software; you can redistribute it and/or modify
+ *  it under the terms of the GNU General Public License version 2 as
+ *  published by the Free Software Foundation.
+ *
+ *  This program is distributed in the hope that it will be useful,
+ *  but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *  GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License
+ *  along with this program; if not, write to the Free Software
+ *  Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston,
+ *  MA 02110-1301, USA.
+ */
+
+package com.github.cheeriotb.aram.host;
+
+import java.io.ByteArrayOutputStream;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/*
+   Benchmark of the APDU exchanges made by the access control enforcers.
+
+   The applet is installed into jCardSim, and each flow below is run as the enforcer would do
+   it, including GET RESPONSE for 61xx and the command sent again with the Le given by 6Cxx.
+   The number of the APDUs, the bytes of the commands and the responses (with the status words)
+   and the time spent in the simulator are reported for each flow. The time is the wall clock
+   time of the simulator on the host, which includes process() of the applet, so it can only be
+   compared between the runs on the same host.
+
+       java com.github.cheeriotb.aram.host.AramBenchmark [-p T=0|T=1] [-n iterations]
+               [-w warm-up iterations] [-i parameters]
+
+   The parameters are the applet specific install parameters in hex (none by default), see
+   README.md. See the benchmark target of the make file for the class path.
+*/
+public final class AramBenchmark {
+    private int mApdus;
+    private long mBytesSent;
+    private long mBytesReceived;
+    private long mNanos;
+
+    private final AramSimulator mSimulator;
+
+    interface Flow {
+        void run(AramBenchmark card);
+    }
+
+    private static final class Entry {
+        final String mName;
+        final Flow mFlow;
+
+        Entry(String name, Flow flow) {
+            mName = name;
+            mFlow = flow;
+        }
+    }
+
+    AramBenchmark(String protocol, byte[] parameters) {
+        mSimulator = new AramSimulator(protocol, parameters);
+    }
+
+    public static void main(String[] args) {
+        String protocol = "T=1";
+        int iterations = 100;
+        int warmUp = 20;
+        byte[] parameters = new byte[0];
+        for (int index = 0; index < args.length; index += 2) {
+            String value = (index + 1 < args.length) ? args[index + 1] : "";
+            switch (args[index]) {
+                case "-p":
+                    protocol = value;
+                    break;
+                case "-n":
+                    iterations = Integer.parseInt(value);
+                    break;
+                case "-w":
+                    warmUp = Integer.parseInt(value);
+                    break;
+                case "-i":
+                    parameters = AramSimulator.hex(value);
+                    break;
+                default:
+                    System.err.println("usage: AramBenchmark [-p T=0|T=1] [-n iterations]"
+                            + " [-w warm-up iterations] [-i parameters]");
+                    System.exit(2);
+                    return;
+            }
+        }
+
+        AramBenchmark card = new AramBenchmark(protocol, parameters);
+        System.out.println("jCardSim " + protocol + ", " + iterations + " iterations after "
+                + warmUp + " warm-up iterations");
+        System.out.println(String.format("%-24s %6s %10s %10s %12s %12s", "flow", "APDUs",
+                "sent", "received", "us/flow", "us/APDU"));
+        for (Entry entry : getFlows()) {
+            card.measure(entry, iterations, warmUp);
+        }
+    }
+
+    static List<Entry> getFlows() {
+        List<Entry> flows = new ArrayList<>();
+        flows.add(new Entry("SELECT (FCI)", card -> card.select(0x00)));
+        flows.add(new Entry("SELECT (FCP)", card -> card.select(0x04)));
+        flows.add(new Entry("SELECT (FMD)", card -> card.select(0x08)));
+        flows.add(new Entry("SELECT (no response)", card -> card.select(0x0C)));
+        flows.add(new Entry("GET DATA DF20", card -> card.getData(0xDF20)));
+        flows.add(new Entry("GET DATA FF40 + FF60", card -> card.getData(0xFF40)));
+        flows.add(new Entry("GET DATA FF43 + FF60", card -> card.getData(0xFF43)));
+        flows.add(new Entry("GET DATA FF44", card -> card.getData(0xFF44)));
+        flows.add(new Entry("GET DATA FF50", card -> card.getSpecific()));
+        flows.add(new Entry("GET DATA FF41 (same)", card -> card.getIfModified()));
+        flows.add(new Entry("enforcer start-up", card -> {
+            card.select(0x00);
+            card.getData(0xDF20);
+            card.getData(0xFF40);
+        }));
+        flows.add(new Entry("enforcer refresh", card -> {
+            card.select(0x00);
+            card.getData(0xDF20);
+        }));
+        return flows;
+    }
+
+    void measure(Entry entry, int iterations, int warmUp) {
+        for (int index = 0; index < warmUp; index++) {
+            entry.mFlow.run(this);
+        }
+        reset();
+        for (int index = 0; index < iterations; index++) {
+            entry.mFlow.run(this);
+        }
+        System.out.println(String.format("%-24s %6d %10d %10d %12.1f %12.1f", entry.mName,
+                mApdus / iterations, mBytesSent / iterations, mBytesReceived / iterations,
+                mNanos / 1000.0 / iterations, mNanos / 1000.0 / mApdus));
+    }
+
+    void reset() {
+        mApdus = 0;
+        mBytesSent = 0;
+        mBytesReceived = 0;
+        mNanos = 0;
+    }
+
+    AramSimulator getSimulator() {
+        return mSimulator;
+    }
+
+    int getApdus() {
+        return mApdus;
+    }
+
+    long getBytesSent() {
+        return mBytesSent;
+    }
+
+    long getBytesReceived() {
+        return mBytesReceived;
+    }
+
+    long getNanos() {
+        return mNanos;
+    }
+
+    /*
+       SELECT by AID with the specified P2, which is a case 4 command without Le, so that the
+       response is taken with GET RESPONSE as the enforcers do on both of the protocols.
+    */
+    byte[] select(int p2) {
+        byte[] aid = AramSimulator.hex(AramSimulator.APPLET_AID);
+        byte[] command = new byte[aid.length + 5];
+        command[1] = (byte) 0xA4;
+        command[2] = (byte) 0x04;
+        command[3] = (byte) p2;
+        command[4] = (byte) aid.length;
+        System.arraycopy(aid, 0, command, 5, aid.length);
+        return exchange(command);
+    }
+
+    /*
+       GET DATA with the specified tag followed by GET DATA [Next] until the whole data object
+       has been received.
+    */
+    byte[] getData(int tag) {
+        return getData(new byte[] {
+            (byte) 0x80, (byte) 0xCA, (byte) (tag >> 8), (byte) tag, 0x00 });
+    }
+
+    /*
+       The specified command followed by GET DATA [Next] until the whole data object has been
+       received.
+    */
+    byte[] getData(byte[] command) {
+        ByteArrayOutputStream data = new ByteArrayOutputStream();
+        byte[] part = exchange(command);
+        data.write(part, 0, part.length);
+        while (data.size() < getTotalLength(data.toByteArray())) {
+            part = exchange(new byte[] { (byte) 0x80, (byte) 0xCA, (byte) 0xFF, 0x60, 0x00 });
+            if (part.length == 0) {
+                throw new IllegalStateException("GET DATA [Next] returned no data");
+            }
+            data.write(part, 0, part.length);
+        }
+        return data.toByteArray();
+    }
+
+    /*
+       GET DATA [Specific] for the REF-DO of UICC Carrier Privileges.
+    */
+    byte[] getSpecific() {
+        return exchange(AramSimulator.hex("80CAFF5020E11E4F06FFFFFFFFFFFFC11461ED377E85D386A8DF"
+                + "EE6B864BD85B0BFAA5AF81"));
+    }
+
+    /*
+       GET DATA FF41 with the current refresh tag, which returns no data.
+    */
+    byte[] getIfModified() {
+        byte[] refreshTag = exchange(AramSimulator.hex("80CADF2000"));
+        byte[] command = new byte[5 + refreshTag.length];
+        System.arraycopy(AramSimulator.hex("80CAFF41"), 0, command, 0, 4);
+        command[4] = (byte) refreshTag.length;
+        System.arraycopy(refreshTag, 0, command, 5, refreshTag.length);
+        return exchange(command);
+    }
+
+    /*
+       Sends the command, and takes the response data following 61xx and 6Cxx.
+    */
+    byte[] exchange(byte[] command) {
+        ByteArrayOutputStream data = new ByteArrayOutputStream();
+        while (true) {
+            byte[] response = transmit(command);
+            int sw = AramSimulator.getStatus(response);
+            data.write(response, 0, response.length - 2);
+            if ((sw & 0xFF00) == 0x6100) {
+                // The applet accepts GET RESPONSE only with the class of the command.
+                command = new byte[] { command[0], (byte) 0xC0, 0x00, 0x00, (byte) sw };
+            } else if ((sw & 0xFF00) == 0x6C00) {
+                command = Arrays.copyOf(command, command.length);
+                command[command.length - 1] = (byte) sw;
+            } else if (sw != AramSimulator.SW_NO_ERROR) {
+                throw new IllegalStateException(String.format("SW %04X", sw));
+            } else {
+                return data.toByteArray();
+            }
+        }
+    }
+
+    byte[] transmit(byte[] command) {
+        long start = System.nanoTime();
+        byte[] response = mSimulator.transmit(command);
+        mNanos += System.nanoTime() - start;
+        mApdus++;
+        mBytesSent += command.length;
+        mBytesReceived += response.length;
+        return response;
+    }
+
+    /*
+       Returns the length of the whole data object, or of Response-Refresh-Tag-DO and
+       Response-ALL-REF-AR-DO following it, from the beginning received so far.
+    */
+    private static int getTotalLength(byte[] data) {
+        int offset = 0;
+        if ((data.length >= 2) && ((data[0] & 0xFF) == 0xDF) && ((data[1] & 0xFF) == 0x20)
+                && (data.length > 11)) {
+            offset = 11;
+        }
+        if (data.length < offset + 3) {
+            return Integer.MAX_VALUE;
+        }
+        int length = data[offset + 2] & 0xFF;
+        int size = 1;
+        if (length > 0x80) {
+            size += length & 0x7F;
+            if (data.length < offset + 2 + size) {
+                return Integer.MAX_VALUE;
+            }
+            length = 0;
+            for (int index = 1; index < size; index++) {
+                length = (length << 8) | (data[offset + 2 + index] & 0xFF);
+            }
+        }
+        return offset + 2 + size + length;
+    }
+}
@@ -0,0 +1,263 @@
+/*
+ *  Copyright (C) 2018 cheeriotb <cheerio.the.bear@gmail.com>
+ *
+ *  This program is free software; you can redistribute it and/or modify
+ *  it under the terms of the GNU General Public License version 2 as
+ *  published by the Free Software Foundation.
+ *
+ *  This program is distributed in the hope that it will be useful,
+ *  but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *  GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License
+ *  along with this program; if not, write to the Free Software
+ *  Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston,
+ *  MA 02110-1301, USA.
+ */
+
+package com.github.cheeriotb.aram.host;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.Closeable;
+import java.io.EOFException;
+import java.io.File;
+import java.io.IOException;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.net.InetAddress;
+import java.net.MalformedURLException;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.net.URL;
+import java.net.URLClassLoader;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.globalplatform.GPSystem;
+
+/*
+   Virtual smart card server running the applet in jCardSim for the host clients such as the
+   emulators running the access control tests of CTS.
+
+   Each client connects to the TCP port as the virtual PC/SC reader of vsmartcard (vpcd) does to
+   the virtual card in its reversed mode, and gets its own card on which only the applet is
+   installed. The messages are the ones of vpcd in both of the directions, that is the length
+   of 2 bytes in big endian followed by either the command APDU or the response APDU, or a single
+   byte of the control sent to the card:
+
+       00  Power off
+       01  Power on, which resets the card
+       02  Reset
+       04  Get ATR, to which the ATR is returned
+
+   Each connection is served on its own virtual thread, so it requires JDK 21 or later. The
+   static Java Card API of jCardSim refers to the card being processed, and the applet and the
+   GPSystem of the host have their static state too. The classes of each card are therefore
+   loaded from the class path by a class loader of its own, so that the cards never share any
+   of them and process the command APDUs of their clients in parallel. Only the classes of the
+   JDK are shared. Loading them takes some time at each connection, which the clients running
+   the tests for a while do not notice.
+
+       java com.github.cheeriotb.aram.host.AramCardServer [-a address] [-P port] [-p T=0|T=1]
+               [-i parameters] [-k]
+
+   The server listens to 127.0.0.1 and port 35963 (the one of vpcd) by default. The parameters
+   are the applet specific install parameters in hex (none by default), see README.md. The
+   access rules cannot be updated by the clients unless -k is given, which lets the GPSystem of
+   the host open the secure channel session for STORE DATA without any key. Any client which
+   can connect to the server can then write the rules of its own card. See the card-server
+   target of the make file for the class path.
+*/
+public final class AramCardServer {
+    private static final int DEFAULT_PORT = 35963;
+    private static final int BACKLOG = 64;
+
+    private static final byte CONTROL_POWER_OFF = 0x00;
+    private static final byte CONTROL_POWER_ON  = 0x01;
+    private static final byte CONTROL_RESET     = 0x02;
+    private static final byte CONTROL_GET_ATR   = 0x04;
+
+    private static final byte[] SW_UNKNOWN = { 0x6F, 0x00 };
+
+    private static final AtomicInteger CONNECTIONS = new AtomicInteger();
+
+    private final String mProtocol;
+    private final byte[] mParameters;
+    private final URL[] mClassPath;
+
+    /*
+       The card of a connection, that is AramSimulator loaded by its own class loader. It is
+       called through reflection since its classes are not the ones of the server.
+    */
+    private static final class Card implements Closeable {
+        private final URLClassLoader mLoader;
+        private final Object mSimulator;
+        private final Method mTransmit;
+        private final Method mReset;
+        private final Method mGetAtr;
+
+        Card(URL[] classPath, String protocol, byte[] parameters) throws IOException {
+            mLoader = new URLClassLoader(classPath, ClassLoader.getPlatformClassLoader());
+            try {
+                Class<?> simulator = mLoader.loadClass(AramSimulator.class.getName());
+                mSimulator = simulator.getConstructor(String.class, byte[].class)
+                        .newInstance(protocol, parameters);
+                mTransmit = simulator.getMethod("transmit", byte[].class);
+                mReset = simulator.getMethod("reset");
+                mGetAtr = simulator.getMethod("getAtr");
+            } catch (ReflectiveOperationException e) {
+                mLoader.close();
+                throw new IOException("The card cannot be created", e);
+            }
+        }
+
+        byte[] transmit(byte[] command) {
+            return (byte[]) invoke(mTransmit, command);
+        }
+
+        void reset() {
+            invoke(mReset);
+        }
+
+        byte[] getAtr() {
+            return (byte[]) invoke(mGetAtr);
+        }
+
+        private Object invoke(Method method, Object... args) {
+            try {
+                return method.invoke(mSimulator, args);
+            } catch (InvocationTargetException e) {
+                if (e.getCause() instanceof RuntimeException) {
+                    throw (RuntimeException) e.getCause();
+                }
+                throw new IllegalStateException(e.getCause());
+            } catch (IllegalAccessException e) {
+                throw new IllegalStateException(e);
+            }
+        }
+
+        public void close() throws IOException {
+            mLoader.close();
+        }
+    }
+
+    private AramCardServer(String protocol, byte[] parameters) throws MalformedURLException {
+        mProtocol = protocol;
+        mParameters = parameters;
+
+        String[] entries = System.getProperty("java.class.path").split(File.pathSeparator);
+        mClassPath = new URL[entries.length];
+        for (int index = 0; index < entries.length; index++) {
+            mClassPath[index] = new File(entries[index]).toURI().toURL();
+        }
+    }
+
+    public static void main(String[] args) throws IOException {
+        String address = "127.0.0.1";
+        int port = DEFAULT_PORT;
+        String protocol = "T=1";
+        byte[] parameters = new byte[0];
+        for (int index = 0; index < args.length; index++) {
+            if (args[index].equals("-k")) {
+                System.setProperty(GPSystem.KEYLESS_PROPERTY, "true");
+                continue;
+            }
+            String value = (index + 1 < args.length) ? args[index + 1] : "";
+            switch (args[index++]) {
+                case "-a":
+                    address = value;
+                    break;
+                case "-P":
+                    port = Integer.parseInt(value);
+                    break;
+                case "-p":
+                    protocol = value;
+                    break;
+                case "-i":
+                    parameters = AramSimulator.hex(value);
+                    break;
+                default:
+                    System.err.println("usage: AramCardServer [-a address] [-P port]"
+                            + " [-p T=0|T=1] [-i parameters] [-k]");
+                    System.exit(2);
+                    return;
+            }
+        }
+
+        AramCardServer server = new AramCardServer(protocol, parameters);
+        try (ServerSocket socket = new ServerSocket(port, BACKLOG, InetAddress.getByName(address));
+                ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            System.out.println("Listening to " + address + ":" + port + " (" + protocol + ")");
+            while (true) {
+                Socket client = socket.accept();
+                executor.submit(() -> server.serve(client));
+            }
+        }
+    }
+
+    private void serve(Socket client) {
+        int connection = CONNECTIONS.incrementAndGet();
+        System.out.println("#" + connection + " connected from "
+                + client.getRemoteSocketAddress());
+        try (Socket socket = client;
+                DataInputStream in = new DataInputStream(
+                        new BufferedInputStream(socket.getInputStream()));
+                DataOutputStream out = new DataOutputStream(
+                        new BufferedOutputStream(socket.getOutputStream()));
+                Card card = new Card(mClassPath, mProtocol, mParameters)) {
+            socket.setTcpNoDelay(true);
+            while (true) {
+                int length;
+                try {
+                    length = in.readUnsignedShort();
+                } catch (EOFException e) {
+                    break;
+                }
+                byte[] message = new byte[length];
+                in.readFully(message);
+
+                byte[] response = (length == 1)
+                        ? control(card, message[0]) : transmit(card, message);
+                if (response != null) {
+                    out.writeShort(response.length);
+                    out.write(response);
+                    out.flush();
+                }
+            }
+        } catch (IOException e) {
+            System.out.println("#" + connection + " " + e);
+        }
+        System.out.println("#" + connection + " disconnected");
+    }
+
+    /*
+       Returns the response to the control, or null if nothing is returned.
+    */
+    private static byte[] control(Card card, byte control) {
+        switch (control) {
+            case CONTROL_POWER_OFF:
+                return null;
+            case CONTROL_POWER_ON:
+            case CONTROL_RESET:
+                card.reset();
+                return null;
+            case CONTROL_GET_ATR:
+                return card.getAtr();
+            default:
+                return null;
+        }
+    }
+
+    private static byte[] transmit(Card card, byte[] command) {
+        try {
+            return card.transmit(command);
+        } catch (RuntimeException e) {
+            // Any exception other than ISOException is returned as 6F00 as the cards do.
+            return SW_UNKNOWN;
+        }
+    }
+}
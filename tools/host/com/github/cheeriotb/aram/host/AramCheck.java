@@ -0,0 +1,677 @@
+/*
+ *  Copyright (C) 2018 cheeriotb <cheerio.the.bear@gmail.com>
+ *
+ *  This program is free software; you can redistribute it and/or modify
+ *  it under the terms of the GNU General Public License version 2 as
+ *  published by the Free Software Foundation.
+ *
+ *  This program is distributed in the hope that it will be useful,
+ *  but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *  GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License
+ *  along with this program; if not, write to the Free Software
+ *  Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston,
+ *  MA 02110-1301, USA.
+ */
+
+package com.github.cheeriotb.aram.host;
+
+import java.io.ByteArrayOutputStream;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.TreeMap;
+
+/*
+   Checks of the behavior of the applet in jCardSim, each of which is described where it is
+   defined. Every check installs the applet again, so that they do not depend on each other.
+
+       java com.github.cheeriotb.aram.host.AramCheck [name...]
+
+   The specified checks are run, or all of them if none is specified. The name and the result
+   of each check are printed, and the exit status is 1 if any of them fails. The checks storing
+   rules open the secure channel session of the GPSystem of the host, which requires the system
+   property GPSystem.KEYLESS_PROPERTY (see the check target of the make file).
+*/
+public final class AramCheck {
+    private static final String[] PROTOCOLS = { "T=0", "T=1" };
+
+    // The install parameters selecting the default profiles, or none of them.
+    private static final byte[] DEFAULT_PROFILES = new byte[0];
+    private static final byte[] NO_PROFILES = { 0x00 };
+
+    // Length of Response-ALL-REF-AR-DO of the default profiles in rules/access-rules.txt.
+    private static final int DEFAULT_RULES_LENGTH = 1709;
+
+    private static final int SW_CONDITIONS_NOT_SATISFIED = 0x6985;
+    private static final int SW_WRONG_DATA               = 0x6A80;
+    private static final int SW_RECORD_NOT_FOUND         = 0x6A83;
+    private static final int SW_FILE_FULL                = 0x6A84;
+
+    private static final byte[] INITIALIZE_UPDATE =
+            AramSimulator.hex("80500000080102030405060708");
+    private static final byte[] EXTERNAL_AUTHENTICATE =
+            AramSimulator.hex("848201001001020304050607080102030405060708");
+
+    // P1 of STORE DATA indicating the last block.
+    private static final int LAST_BLOCK = 0x80;
+
+    // REF-AR-DO for the AID A00000015100 and the hash 1111...11 allowing any APDU.
+    private static final String REF_AR_DO = "E225E11E4F06A00000015100C114"
+            + "1111111111111111111111111111111111111111E303D00101";
+    // REF-AR-DO whose AR-DO is broken.
+    private static final String BROKEN_REF_AR_DO = "E209E1024F00E303D00201";
+
+    interface Check {
+        void run();
+    }
+
+    private static final class Entry {
+        final String mName;
+        final Check mCheck;
+
+        Entry(String name, Check check) {
+            mName = name;
+            mCheck = check;
+        }
+    }
+
+    public static void main(String[] args) {
+        List<String> names = Arrays.asList(args);
+        int failures = 0;
+        for (Entry entry : getChecks()) {
+            if (!names.isEmpty() && !names.contains(entry.mName)) {
+                continue;
+            }
+            try {
+                entry.mCheck.run();
+                System.out.println(entry.mName + ": ok");
+            } catch (IllegalStateException e) {
+                System.out.println(entry.mName + ": FAILED: " + e.getMessage());
+                failures++;
+            }
+        }
+        System.exit((failures != 0) ? 1 : 0);
+    }
+
+    static List<Entry> getChecks() {
+        List<Entry> checks = new ArrayList<>();
+        checks.add(new Entry("transient-cursor", AramCheck::checkTransientCursor));
+        checks.add(new Entry("interleaved-get-data", AramCheck::checkInterleavedGetData));
+        checks.add(new Entry("atomic-store-data", AramCheck::checkAtomicStoreData));
+        checks.add(new Entry("apdus-per-flow", AramCheck::checkApdusPerFlow));
+        checks.add(new Entry("ref-do-forms", AramCheck::checkRefDoForms));
+        checks.add(new Entry("random-le", AramCheck::checkRandomLe));
+        checks.add(new Entry("paged-rules", AramCheck::checkPagedRules));
+        checks.add(new Entry("staged-update", AramCheck::checkStagedUpdate));
+        checks.add(new Entry("specific-lookups", AramCheck::checkSpecificLookups));
+        checks.add(new Entry("aid-capacity", AramCheck::checkAidCapacity));
+        return checks;
+    }
+
+    /*
+       The whole rules of the default profiles (1709 bytes) are taken on T=0 with Le=00 in 8
+       APDUs: GET DATA [All] and five GET DATA [Next] of 256 bytes each, GET DATA [Next]
+       answered with 6CAD, and the same command sent again with Le=AD. GET DATA [Next] continues
+       the rules within the session, and is rejected once the card has been reset and the applet
+       selected again, so that the new session has to start with GET DATA [All].
+    */
+    private static void checkTransientCursor() {
+        AramBenchmark card = new AramBenchmark("T=0", DEFAULT_PROFILES);
+        card.select(0x00);
+        card.reset();
+        byte[] rules = card.getData(0xFF40);
+        expect(rules.length == DEFAULT_RULES_LENGTH, "rules of " + rules.length + " bytes");
+        expect(card.getApdus() == 8, card.getApdus() + " APDUs for the rules");
+
+        card.select(0x00);
+        card.transmit(AramSimulator.hex("80CAFF4000"));
+        expectStatus(card.transmit(AramSimulator.hex("80CAFF6000")), AramSimulator.SW_NO_ERROR,
+                "GET DATA [Next] in the session");
+        card.getSimulator().reset();
+        card.select(0x00);
+        expectStatus(card.transmit(AramSimulator.hex("80CAFF6000")),
+                SW_CONDITIONS_NOT_SATISFIED, "GET DATA [Next] after the reset");
+    }
+
+    /*
+       The rules are taken with GET DATA [Next] while GET DATA [Refresh tag], the metrics and the
+       traces are read between the parts of them on each protocol, as an enforcer and a
+       diagnostic tool may do on the same logical channel. The rules are the same as the ones
+       taken without them.
+    */
+    private static void checkInterleavedGetData() {
+        int[] tags = { 0xDF20, 0xDF30, 0xDF31, 0xDF32, 0xDF33 };
+        for (String protocol : PROTOCOLS) {
+            AramBenchmark card = new AramBenchmark(protocol, DEFAULT_PROFILES);
+            card.select(0x00);
+            byte[] expected = card.getData(0xFF40);
+
+            ByteArrayOutputStream rules = new ByteArrayOutputStream();
+            byte[] command = AramSimulator.hex("80CAFF4000");
+            while (rules.size() < expected.length) {
+                byte[] part = card.exchange(command);
+                expect(part.length > 0, protocol + ": no data after " + rules.size() + " bytes");
+                rules.write(part, 0, part.length);
+                for (int tag : tags) {
+                    card.exchange(new byte[] {
+                        (byte) 0x80, (byte) 0xCA, (byte) (tag >> 8), (byte) tag, 0x00 });
+                }
+                command = AramSimulator.hex("80CAFF6000");
+            }
+            expect(Arrays.equals(rules.toByteArray(), expected),
+                    protocol + ": rules differ from the ones taken without the other GET DATA");
+        }
+    }
+
+    /*
+       A single block of STORE DATA with several commands is applied as a whole or not at all.
+       The block storing a REF-AR-DO and then failing on a broken one changes neither the rules
+       nor the refresh tag. The same block without the broken one makes both of its updates
+       active with a single update of the refresh tag. So does a single block deleting all of
+       the REF-AR-DOs of an AID, or all of the rules, however many of them are deleted.
+    */
+    private static void checkAtomicStoreData() {
+        AramBenchmark card = openSecureChannel("T=1", DEFAULT_PROFILES);
+        byte[] rules = card.getData(0xFF40);
+        byte[] refreshTag = card.getData(0xDF20);
+
+        String store = tlv(0xF0, REF_AR_DO);
+        expectStatus(storeData(card, LAST_BLOCK, 0, store + tlv(0xF0, BROKEN_REF_AR_DO)),
+                SW_WRONG_DATA, "STORE DATA with the broken REF-AR-DO");
+        expect(Arrays.equals(card.getData(0xFF40), rules), "rules changed by the failed block");
+        expect(Arrays.equals(card.getData(0xDF20), refreshTag),
+                "refresh tag changed by the failed block");
+
+        expectStatus(storeData(card, LAST_BLOCK, 0, store + tlv(0xF1, "")),
+                AramSimulator.SW_NO_ERROR, "STORE DATA storing and deleting all");
+        expect(card.getData(0xFF40).length == 3, "rules left after deleting all");
+        expect(getRefreshTag(card) == getRefreshTag(refreshTag) + 1,
+                "refresh tag not counted up once");
+
+        card = openSecureChannel("T=1", DEFAULT_PROFILES);
+        long tag = getRefreshTag(card);
+        String cts = "A000000476416E64726F696443545341";
+        expectStatus(storeData(card, LAST_BLOCK, 0, tlv(0xF1, tlv(0x4F, cts))),
+                AramSimulator.SW_NO_ERROR, "STORE DATA deleting the rules of an AID");
+        expect(!AramSimulator.toHex(card.getData(0xFF40)).contains("4F10" + cts),
+                "rules of the AID left after deleting them");
+        expect(getRefreshTag(card) == tag + 1, "refresh tag not counted up once for the AID");
+        expectStatus(storeData(card, LAST_BLOCK, 0, tlv(0xF1, "")), AramSimulator.SW_NO_ERROR,
+                "STORE DATA deleting all");
+        expect(card.getData(0xFF40).length == 3, "rules left after deleting all alone");
+        expect(getRefreshTag(card) == tag + 2, "refresh tag not counted up once for all");
+    }
+
+    /*
+       The number of the APDUs taken by each flow of an enforcer sending Le=00 with every
+       command, including GET RESPONSE for 61xx and the command sent again for 6Cxx. T=0
+       answers a case 4 command with 61xx and a Le bigger than the data with 6Cxx, while the
+       other protocols return the data at once:
+
+           flow                         T=0  T=1
+           SELECT (FCI)                   2    1
+           GET DATA [All] and [Next]      8    7
+           GET DATA [Specific]            2    1
+           GET DATA [Refresh tag]         2    1
+           GET DATA FF41 (stale tag)      8    7
+    */
+    private static void checkApdusPerFlow() {
+        String[] names = { "SELECT", "GET DATA [All]", "GET DATA [Specific]",
+            "GET DATA [Refresh tag]", "GET DATA FF41" };
+        AramBenchmark.Flow[] flows = {
+            card -> card.exchange(AramSimulator.hex("00A4040009" + AramSimulator.APPLET_AID
+                    + "00")),
+            card -> card.getData(AramSimulator.hex("80CAFF4000")),
+            card -> card.exchange(AramSimulator.hex("80CAFF5020E11E4F06FFFFFFFFFFFFC11461ED377E"
+                    + "85D386A8DFEE6B864BD85B0BFAA5AF8100")),
+            card -> card.exchange(AramSimulator.hex("80CADF2000")),
+            card -> card.getData(AramSimulator.hex("80CAFF410BDF2008000000000000000000"))
+        };
+        int[][] expected = { { 2, 8, 2, 2, 8 }, { 1, 7, 1, 1, 7 } };
+        for (int protocol = 0; protocol < PROTOCOLS.length; protocol++) {
+            AramBenchmark card = new AramBenchmark(PROTOCOLS[protocol], DEFAULT_PROFILES);
+            for (int flow = 0; flow < flows.length; flow++) {
+                card.select(0x00);
+                card.reset();
+                flows[flow].run(card);
+                expect(card.getApdus() == expected[protocol][flow],
+                        PROTOCOLS[protocol] + ": " + names[flow] + " took " + card.getApdus()
+                        + " APDUs instead of " + expected[protocol][flow]);
+            }
+        }
+    }
+
+    /*
+       STORE DATA accepts the REF-DO consisting of exactly an AID-REF-DO (4F) and a
+       DeviceAppID-REF-DO (C1) in either order, and the REF-AR-DO is written out with them in
+       that order. The REF-DO of only one of them, or with the AID-REF-DO of the implicitly
+       selected application (C0), is rejected with 6A80 without any change of the rules, as the
+       store of the REF-AR-DOs has done since STORE DATA was introduced.
+    */
+    private static void checkRefDoForms() {
+        String aid = "4F06A00000015100";
+        String hash = "C1141111111111111111111111111111111111111111";
+        String arDo = "E303D00101";
+        String[] rejected = { aid, hash, "C000" + hash, "C000" + aid + hash };
+
+        AramBenchmark card = openSecureChannel("T=1", DEFAULT_PROFILES);
+        byte[] rules = card.getData(0xFF40);
+        for (String refDo : rejected) {
+            String refArDo = tlv(0xE2, tlv(0xE1, refDo) + arDo);
+            expectStatus(storeData(card, LAST_BLOCK, 0, tlv(0xF0, refArDo)), SW_WRONG_DATA,
+                    "STORE DATA with the REF-DO " + refDo);
+        }
+        expect(Arrays.equals(card.getData(0xFF40), rules), "rules changed by the rejected ones");
+
+        String refArDo = tlv(0xE2, tlv(0xE1, hash + aid) + arDo);
+        expectStatus(storeData(card, LAST_BLOCK, 0, tlv(0xF0, refArDo)),
+                AramSimulator.SW_NO_ERROR, "STORE DATA with the REF-DO of C1 and 4F");
+        expect(AramSimulator.toHex(card.getData(0xFF40)).contains(REF_AR_DO),
+                "REF-AR-DO not written out with 4F and C1 in that order");
+    }
+
+    /*
+       The rules taken with GET DATA [All] and [Next] with random Le from 1 to 256 for each of
+       them are the same as the ones taken with Le=00 on each protocol, as the rules are written
+       out part by part into the APDU buffer from any position of a REF-AR-DO. The random
+       numbers are the same for every run.
+    */
+    private static void checkRandomLe() {
+        Random random = new Random(1);
+        for (String protocol : PROTOCOLS) {
+            AramBenchmark card = new AramBenchmark(protocol, DEFAULT_PROFILES);
+            card.select(0x00);
+            byte[] expected = card.getData(0xFF40);
+            for (int download = 0; download < 50; download++) {
+                ByteArrayOutputStream rules = new ByteArrayOutputStream();
+                byte[] command = AramSimulator.hex("80CAFF4000");
+                while (rules.size() < expected.length) {
+                    command[4] = (byte) (1 + random.nextInt(256));
+                    byte[] part = card.exchange(command);
+                    expect(part.length > 0, protocol + ": no data after " + rules.size()
+                            + " bytes");
+                    rules.write(part, 0, part.length);
+                    command = AramSimulator.hex("80CAFF6000");
+                }
+                expect(Arrays.equals(rules.toByteArray(), expected),
+                        protocol + ": rules differ from the ones taken with Le=00");
+            }
+        }
+    }
+
+    /*
+       MAX_RULES (256) REF-AR-DOs of 249 bytes each, the longest ones which STORE DATA of a
+       short APDU can carry with a REF-DO of 32 bytes, make Response-ALL-REF-AR-DO of 63748
+       bytes, which GET DATA FF43 also returns after Response-Refresh-Tag-DO. Half of them are
+       for UICC Carrier Privileges, so GET DATA FF44 returns 31876 bytes of them. All of them are
+       taken with Le=00 through GET DATA [Next] on each protocol, and shall have the length in
+       the 82 form and consist of the REF-AR-DOs stored.
+
+       The 83 form is used only for the rules of 65536 bytes or more, which the REF-AR-DOs
+       stored with STORE DATA never reach.
+    */
+    private static void checkPagedRules() {
+        List<String> all = new ArrayList<>();
+        List<String> carrierPrivileges = new ArrayList<>();
+        StringBuilder filters = new StringBuilder();
+        for (int filter = 0; filter < 26; filter++) {
+            filters.append(String.format("80CA%02X00FFFFFF00", filter));
+        }
+        String arDo = tlv(0xE3, tlv(0xD0, filters.toString()));
+        for (int rule = 0; rule < 256; rule++) {
+            String aid = (rule < 128) ? "FFFFFFFFFFFF" : "A00000015100";
+            String hash = String.join("", Collections.nCopies(20, String.format("%02X",
+                    rule % 128)));
+            String refArDo = tlv(0xE2, tlv(0xE1, tlv(0x4F, aid) + tlv(0xC1, hash)) + arDo);
+            all.add(refArDo);
+            if (rule < 128) {
+                carrierPrivileges.add(refArDo);
+            }
+        }
+
+        for (String protocol : PROTOCOLS) {
+            AramBenchmark card = openSecureChannel(protocol, NO_PROFILES);
+            for (String refArDo : all) {
+                expectStatus(storeData(card, LAST_BLOCK, 0, tlv(0xF0, refArDo)),
+                        AramSimulator.SW_NO_ERROR, protocol + ": STORE DATA");
+            }
+            expectRules(card.getData(0xFF40), all, protocol + ": GET DATA [All]");
+            String bootstrap = AramSimulator.toHex(card.getData(0xFF43));
+            expect(bootstrap.startsWith("DF2008"), protocol + ": GET DATA FF43: no Refresh tag");
+            expectRules(AramSimulator.hex(bootstrap.substring(22)), all,
+                    protocol + ": GET DATA FF43");
+            expectRules(card.getData(0xFF44), carrierPrivileges, protocol + ": GET DATA FF44");
+        }
+    }
+
+    /*
+       A sequence of STORE DATA blocks is staged on each protocol as follows:
+
+       - The blocks before the last one change neither the rules nor the refresh tag, and the
+         last block makes all of them active with a single update of the refresh tag.
+       - The enforcers taking the rules on the logical channels 1 and 2 have started before the
+         last block. The one on the channel 1 receives the whole old rules after it. The one on
+         the channel 2 is rejected with 6985 once the next sequence starts staging into the
+         bank of the old rules.
+       - A block out of order and a block failing are rejected, and give up the sequence, so
+         that the rest of it is rejected too and the rules are not changed. So do a new secure
+         channel session and the reset of the card.
+       - 200 sequences each replacing the rules with a REF-AR-DO of a distinct AID, hash and
+         AR-DO are all accepted, which exceeds MAX_AIDS, MAX_HASHES and MAX_AR_DOS of the
+         applet unless the values of the replaced rules are released.
+    */
+    private static void checkStagedUpdate() {
+        String deleteAll = tlv(0xF1, "");
+        String replaced = String.format("FF40%02X", REF_AR_DO.length() / 2) + REF_AR_DO;
+        for (String protocol : PROTOCOLS) {
+            AramBenchmark card = openSecureChannel(protocol, DEFAULT_PROFILES);
+            byte[] rules = card.getData(0xFF40);
+            long refreshTag = getRefreshTag(card);
+
+            ByteArrayOutputStream[] readers = new ByteArrayOutputStream[2];
+            for (int channel = 1; channel <= 2; channel++) {
+                expect(card.exchange(AramSimulator.hex("0070000001"))[0] == channel,
+                        protocol + ": logical channel " + channel + " not opened");
+                card.exchange(AramSimulator.hex(String.format("%02XA4040009%s00", channel,
+                        AramSimulator.APPLET_AID)));
+                readers[channel - 1] = new ByteArrayOutputStream();
+                byte[] part = card.exchange(AramSimulator.hex(String.format("%02XCAFF4000",
+                        0x80 | channel)));
+                readers[channel - 1].write(part, 0, part.length);
+            }
+
+            expectStatus(storeData(card, 0x00, 0, deleteAll), AramSimulator.SW_NO_ERROR,
+                    protocol + ": block 00");
+            expect(Arrays.equals(card.getData(0xFF40), rules),
+                    protocol + ": rules changed before the last block");
+            expect(getRefreshTag(card) == refreshTag,
+                    protocol + ": refresh tag changed before the last block");
+            expectStatus(storeData(card, LAST_BLOCK, 1, tlv(0xF0, REF_AR_DO)),
+                    AramSimulator.SW_NO_ERROR, protocol + ": block 01");
+            expect(AramSimulator.toHex(card.getData(0xFF40)).equals(replaced),
+                    protocol + ": rules not replaced by the last block");
+            expect(getRefreshTag(card) == refreshTag + 1,
+                    protocol + ": refresh tag not counted up once");
+
+            while (readers[0].size() < rules.length) {
+                byte[] part = card.exchange(AramSimulator.hex("81CAFF6000"));
+                expect(part.length > 0, protocol + ": no data after " + readers[0].size()
+                        + " bytes on the channel 1");
+                readers[0].write(part, 0, part.length);
+            }
+            expect(Arrays.equals(readers[0].toByteArray(), rules),
+                    protocol + ": old rules broken across the last block");
+
+            expectStatus(storeData(card, 0x00, 0, deleteAll), AramSimulator.SW_NO_ERROR,
+                    protocol + ": block 00 of the next sequence");
+            expectStatus(card.transmit(AramSimulator.hex("82CAFF6000")),
+                    SW_CONDITIONS_NOT_SATISFIED, protocol + ": old rules after the next sequence");
+
+            expectStatus(storeData(card, 0x00, 2, deleteAll), SW_CONDITIONS_NOT_SATISFIED,
+                    protocol + ": block 02 after block 00");
+            expectStatus(storeData(card, LAST_BLOCK, 1, deleteAll), SW_CONDITIONS_NOT_SATISFIED,
+                    protocol + ": block 01 after block 02");
+            expectStatus(storeData(card, 0x00, 0, deleteAll), AramSimulator.SW_NO_ERROR,
+                    protocol + ": block 00");
+            expectStatus(storeData(card, 0x00, 1, tlv(0xF0, BROKEN_REF_AR_DO)), SW_WRONG_DATA,
+                    protocol + ": block 01 with the broken REF-AR-DO");
+            expectStatus(storeData(card, LAST_BLOCK, 2, deleteAll), SW_CONDITIONS_NOT_SATISFIED,
+                    protocol + ": block 02 after the failed block");
+            expectStatus(storeData(card, 0x00, 0, deleteAll), AramSimulator.SW_NO_ERROR,
+                    protocol + ": block 00 before the new session");
+            card.exchange(INITIALIZE_UPDATE);
+            card.exchange(EXTERNAL_AUTHENTICATE);
+            expectStatus(storeData(card, LAST_BLOCK, 1, deleteAll), SW_CONDITIONS_NOT_SATISFIED,
+                    protocol + ": block 01 in the new session");
+            expectStatus(storeData(card, 0x00, 0, deleteAll), AramSimulator.SW_NO_ERROR,
+                    protocol + ": block 00 before the reset");
+            card.getSimulator().reset();
+            card.select(0x00);
+            card.exchange(INITIALIZE_UPDATE);
+            card.exchange(EXTERNAL_AUTHENTICATE);
+            expectStatus(storeData(card, LAST_BLOCK, 1, deleteAll), SW_CONDITIONS_NOT_SATISFIED,
+                    protocol + ": block 01 after the reset");
+            expect(AramSimulator.toHex(card.getData(0xFF40)).equals(replaced),
+                    protocol + ": rules changed by the sequences given up");
+            expect(getRefreshTag(card) == refreshTag + 1,
+                    protocol + ": refresh tag changed by the sequences given up");
+
+            String refArDo = null;
+            for (int sequence = 0; sequence < 200; sequence++) {
+                String hash = String.join("", Collections.nCopies(20, String.format("%02X",
+                        sequence)));
+                refArDo = tlv(0xE2, tlv(0xE1, tlv(0x4F, String.format("A00000015100%02X",
+                        sequence)) + tlv(0xC1, hash))
+                        + tlv(0xE3, tlv(0xD0, String.format("80CA%02X00FFFFFF00", sequence))));
+                expectStatus(storeData(card, 0x00, 0, deleteAll), AramSimulator.SW_NO_ERROR,
+                        protocol + ": block 00 of the sequence " + sequence);
+                expectStatus(storeData(card, LAST_BLOCK, 1, tlv(0xF0, refArDo)),
+                        AramSimulator.SW_NO_ERROR, protocol + ": block 01 of the sequence "
+                        + sequence);
+            }
+            String last = String.format("FF40%02X", refArDo.length() / 2) + refArDo;
+            expect(AramSimulator.toHex(card.getData(0xFF40)).equals(last),
+                    protocol + ": rules differ from the last sequence");
+            expect(getRefreshTag(card) == refreshTag + 201,
+                    protocol + ": refresh tag not counted up once per sequence");
+        }
+    }
+
+    /*
+       GET DATA [Specific] is sent 1800 times on each protocol for one of 12 REF-DOs stored or
+       one never stored, drawn at random (seed 1), so that the REF-AR-DOs found lately are looked
+       up again and again. One in ten of them is preceded by an update of one of the REF-DOs
+       instead: the REF-AR-DO replaced with another AR-DO by a single block or a sequence of
+       STORE DATA, or deleted. The rules taken with GET DATA [All] after each update shall be
+       the ones expected, and each response of GET DATA [Specific] shall have the AR-DO of the
+       REF-DO in them, or no data if the REF-DO is not in them.
+    */
+    private static void checkSpecificLookups() {
+        String[] aids = { "A00000015100", "A00000015101", "FFFFFFFFFFFF",
+            "A000000476416E64726F696443545341" };
+        List<String> refDos = new ArrayList<>();
+        for (String aid : aids) {
+            for (int hash = 0; hash < 4; hash++) {
+                refDos.add(tlv(0xE1, tlv(0x4F, aid) + tlv(0xC1, String.join("",
+                        Collections.nCopies(20, String.format("%02X", 0x11 * (hash + 1)))))));
+            }
+        }
+        String[] arDos = { "E303D00101", "E303D00100", tlv(0xE3, tlv(0xD0, "80CA000000FF0000")),
+            tlv(0xE3, tlv(0xD0, "00A40400FFFFFF00") + tlv(0xDB, "0000000000000001")) };
+
+        for (String protocol : PROTOCOLS) {
+            Random random = new Random(1);
+            AramBenchmark card = openSecureChannel(protocol, NO_PROFILES);
+            // The last hash of each AID is never stored.
+            Map<String, String> rules = new TreeMap<>();
+            for (int index = 0; index < refDos.size(); index++) {
+                if (index % 4 != 3) {
+                    rules.put(refDos.get(index), arDos[0]);
+                    expectStatus(storeData(card, LAST_BLOCK, 0,
+                            tlv(0xF0, tlv(0xE2, refDos.get(index) + arDos[0]))),
+                            AramSimulator.SW_NO_ERROR, protocol + ": STORE DATA");
+                }
+            }
+
+            for (int query = 0; query < 1800; query++) {
+                String refDo = refDos.get(random.nextInt(refDos.size()));
+                if (random.nextInt(10) == 0) {
+                    String update = updateRule(card, random, rules, refDo, arDos);
+                    List<String> expected = new ArrayList<>();
+                    for (Map.Entry<String, String> rule : rules.entrySet()) {
+                        expected.add(tlv(0xE2, rule.getKey() + rule.getValue()));
+                    }
+                    expectRules(card.getData(0xFF40), expected,
+                            protocol + ": GET DATA [All] after " + update);
+                    refDo = refDos.get(random.nextInt(refDos.size()));
+                }
+
+                String arDo = rules.containsKey(refDo) ? rules.get(refDo) : "";
+                String response = AramSimulator.toHex(card.exchange(AramSimulator.hex(
+                        String.format("80CAFF50%02X%s00", refDo.length() / 2, refDo))));
+                expect(response.equals(getHeader(0xFF50, arDo.length() / 2) + arDo),
+                        protocol + ": GET DATA [Specific] " + query + " for " + refDo
+                        + " returned " + response);
+            }
+        }
+    }
+
+    /*
+       Stores the REF-DO with one of the AR-DOs drawn at random by a single block or a sequence
+       of two blocks of STORE DATA, or deletes it, and returns what has been done.
+    */
+    private static String updateRule(AramBenchmark card, Random random,
+            Map<String, String> rules, String refDo, String[] arDos) {
+        String arDo = arDos[random.nextInt(arDos.length)];
+        String store = tlv(0xF0, tlv(0xE2, refDo + arDo));
+        switch (random.nextInt(3)) {
+            case 0:
+                expectStatus(storeData(card, LAST_BLOCK, 0, store), AramSimulator.SW_NO_ERROR,
+                        "STORE DATA of a single block");
+                rules.put(refDo, arDo);
+                return "the single block storing " + refDo;
+
+            case 1:
+                // The first block stores an AR-DO which the last block replaces.
+                expectStatus(storeData(card, 0x00, 0, tlv(0xF0, tlv(0xE2, refDo + arDos[0]))),
+                        AramSimulator.SW_NO_ERROR, "STORE DATA of block 00");
+                expectStatus(storeData(card, LAST_BLOCK, 1, store), AramSimulator.SW_NO_ERROR,
+                        "STORE DATA of block 01");
+                rules.put(refDo, arDo);
+                return "the sequence storing " + refDo;
+
+            default:
+                expectStatus(storeData(card, LAST_BLOCK, 0, tlv(0xF1, refDo)),
+                        rules.containsKey(refDo) ? AramSimulator.SW_NO_ERROR : SW_RECORD_NOT_FOUND,
+                        "STORE DATA deleting a REF-DO");
+                rules.remove(refDo);
+                return "deleting " + refDo;
+        }
+    }
+
+    /*
+       MAX_AIDS (64) AIDs of 16 bytes sharing no prefix with each other can be stored into the
+       active bank by single blocks of STORE DATA, and then into the other bank by a sequence
+       copying all of them. The 65th distinct AID is rejected with 6A84 by the pool of the AIDs.
+    */
+    private static void checkAidCapacity() {
+        String hash = String.join("", Collections.nCopies(20, "11"));
+        List<String> stored = new ArrayList<>();
+        AramBenchmark card = openSecureChannel("T=1", NO_PROFILES);
+        for (int aid = 0; aid <= 64; aid++) {
+            String refArDo = tlv(0xE2, tlv(0xE1, tlv(0x4F, String.join("",
+                    Collections.nCopies(16, String.format("%02X", 0x80 + aid))))
+                    + tlv(0xC1, hash)) + "E303D00101");
+            byte[] response = storeData(card, LAST_BLOCK, 0, tlv(0xF0, refArDo));
+            if (aid < 64) {
+                expectStatus(response, AramSimulator.SW_NO_ERROR, "STORE DATA of AID " + aid);
+                stored.add(refArDo);
+            } else {
+                expectStatus(response, SW_FILE_FULL, "STORE DATA of the 65th AID");
+            }
+        }
+
+        String refArDo = tlv(0xE2, tlv(0xE1, tlv(0x4F, stored.get(0).substring(12, 44))
+                + tlv(0xC1, String.join("", Collections.nCopies(20, "22")))) + "E303D00100");
+        expectStatus(storeData(card, 0x00, 0, tlv(0xF0, refArDo)), AramSimulator.SW_NO_ERROR,
+                "STORE DATA of block 00");
+        expectStatus(storeData(card, LAST_BLOCK, 1, tlv(0xF0, stored.get(63))),
+                AramSimulator.SW_NO_ERROR, "STORE DATA of block 01");
+        stored.add(refArDo);
+        expectRules(card.getData(0xFF40), stored, "GET DATA [All]");
+    }
+
+    /*
+       Expects Response-ALL-REF-AR-DO consisting of the specified REF-AR-DOs in any order, with
+       the length in the shortest form.
+    */
+    private static void expectRules(byte[] response, List<String> expected, String message) {
+        String data = AramSimulator.toHex(response);
+        int length = 0;
+        for (String refArDo : expected) {
+            length += refArDo.length() / 2;
+        }
+        String header = getHeader(0xFF40, length);
+        expect(data.startsWith(header),
+                message + ": header " + data.substring(0, Math.min(data.length(), 12)));
+
+        List<String> rules = new ArrayList<>();
+        for (int offset = header.length(); offset < data.length(); ) {
+            int value = offset + (data.startsWith("E281", offset) ? 6 : 4);
+            expect(data.startsWith("E2", offset), message + ": no REF-AR-DO at " + offset / 2);
+            int end = value + Integer.parseInt(data.substring(value - 2, value), 16) * 2;
+            rules.add(data.substring(offset, end));
+            offset = end;
+        }
+        List<String> sorted = new ArrayList<>(expected);
+        Collections.sort(sorted);
+        Collections.sort(rules);
+        expect(rules.equals(sorted), message + ": REF-AR-DOs differ from the ones stored");
+    }
+
+    /*
+       Installs the applet, selects it and opens the secure channel session for STORE DATA.
+    */
+    static AramBenchmark openSecureChannel(String protocol, byte[] parameters) {
+        AramBenchmark card = new AramBenchmark(protocol, parameters);
+        card.select(0x00);
+        card.exchange(INITIALIZE_UPDATE);
+        card.exchange(EXTERNAL_AUTHENTICATE);
+        return card;
+    }
+
+    static byte[] storeData(AramBenchmark card, int p1, int p2, String data) {
+        byte[] value = AramSimulator.hex(data);
+        byte[] command = new byte[value.length + 5];
+        command[0] = (byte) 0x84;
+        command[1] = (byte) 0xE2;
+        command[2] = (byte) p1;
+        command[3] = (byte) p2;
+        command[4] = (byte) value.length;
+        System.arraycopy(value, 0, command, 5, value.length);
+        return card.transmit(command);
+    }
+
+    static String tlv(int tag, String value) {
+        int length = value.length() / 2;
+        return String.format((length > 0x7F) ? "%02X81%02X" : "%02X%02X", tag, length) + value;
+    }
+
+    // The tag of two bytes followed by the length in the shortest form.
+    private static String getHeader(int tag, int length) {
+        if (length > 0xFF) {
+            return String.format("%04X82%04X", tag, length);
+        }
+        return String.format((length > 0x7F) ? "%04X81%02X" : "%04X%02X", tag, length);
+    }
+
+    private static long getRefreshTag(AramBenchmark card) {
+        return getRefreshTag(card.getData(0xDF20));
+    }
+
+    // The lower 7 bytes of the refresh tag following DF20 08.
+    private static long getRefreshTag(byte[] refreshTagDo) {
+        long tag = 0;
+        for (int index = 4; index < refreshTagDo.length; index++) {
+            tag = (tag << 8) | (refreshTagDo[index] & 0xFF);
+        }
+        return tag;
+    }
+
+    static void expect(boolean condition, String message) {
+        if (!condition) {
+            throw new IllegalStateException(message);
+        }
+    }
+
+    static void expectStatus(byte[] response, int sw, String message) {
+        int actual = AramSimulator.getStatus(response);
+        expect(actual == sw, String.format("%s: SW %04X instead of %04X", message, actual, sw));
+    }
+}
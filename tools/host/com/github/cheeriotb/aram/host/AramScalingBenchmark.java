@@ -0,0 +1,240 @@
+/*
+ *  Copyright (C) 2018 cheeriotb <cheerio.the.bear@gmail.com>
+ *
+ *  This program is free software; you can redistribute it and/or modify
+ *  it under the terms of the GNU General Public License version 2 as
+ *  published by the Free Software Foundation.
+ *
+ *  This program is distributed in the hope that it will be useful,
+ *  but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *  GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License
+ *  along with this program; if not, write to the Free Software
+ *  Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston,
+ *  MA 02110-1301, USA.
+ */
+
+package com.github.cheeriotb.aram.host;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+
+/*
+   Benchmark of the applet storing the synthetic corpora of access rules made by RuleCorpus.
+
+   For each size of the corpus, the applet is installed into jCardSim without the rules of the
+   profiles, and the REF-AR-DOs are stored one by one with STORE DATA in the secure channel
+   session of the GPSystem of the host, which requires the system property
+   GPSystem.KEYLESS_PROPERTY (see the scaling-benchmark target of the make file). The applet
+   holds MAX_RULES (256) REF-AR-DOs at most, and the distinct values limited by MAX_AIDS,
+   MAX_HASHES and MAX_AR_DOS, so the big corpora are stored only partly. Every REF-AR-DO of
+   the corpus is sent all the same, and the ones rejected with 6A84 are left out of the stored
+   ones. Then the following are reported:
+
+       stored     REF-AR-DOs stored out of the corpus
+       full@      REF-AR-DOs stored when the first of them was rejected with 6A84, or - if none
+       limit      the limit of the applet hit by that REF-AR-DO: rules, AIDs, hashes or AR-DOs,
+                  which is found on the host from the values of the REF-AR-DOs stored so far
+       AIDs       distinct AIDs, hashes and AR-DOs kept in the pools of the rule store
+       values~    estimated bytes of the arrays of those distinct values, which are the only
+                  persistent memory allocated for the rules after the installation. jCardSim
+                  does not report it, so it is computed on the host from the stored REF-AR-DOs.
+       rules      bytes of the REF-AR-DOs sent in Response-ALL-REF-AR-DO
+       us/store   time per STORE DATA
+       APDUs      GET DATA [All] and GET DATA [Next] to take the whole rules
+       us/chunk   time per APDU of them
+       us/lookup  time of GET DATA [Specific] for one of the stored REF-DOs with GET RESPONSE
+
+       java com.github.cheeriotb.aram.host.AramScalingBenchmark [-p T=0|T=1] [-c sizes]
+               [-n iterations] [-l lookups] [-s seed] [-csv]
+
+   The sizes are separated by commas (100,1000,10000 by default). The whole rules are taken the
+   specified number of times (10 by default), and the specified number of the REF-DOs drawn out
+   of the stored ones are looked up (200 by default). The table is printed in CSV with -csv, so
+   that it can be charted against the size of the corpus.
+*/
+public final class AramScalingBenchmark {
+    private static final int SW_FILE_FULL = 0x6A84;
+
+    // MAX_RULES, MAX_AIDS, MAX_HASHES and MAX_AR_DOS of the applet.
+    private static final int MAX_RULES  = 0x100;
+    private static final int MAX_AIDS   = 0x40;
+    private static final int MAX_HASHES = 0x80;
+    private static final int MAX_AR_DOS = 0x20;
+
+    // The install parameters selecting none of the profiles.
+    private static final byte[] NO_PROFILES = { 0x00 };
+
+    private static final byte[] INITIALIZE_UPDATE =
+            AramSimulator.hex("80500000080102030405060708");
+    private static final byte[] EXTERNAL_AUTHENTICATE =
+            AramSimulator.hex("848201001001020304050607080102030405060708");
+
+    private static final int TAG_COMMAND_STORE_REF_AR_DO = 0xF0;
+
+    public static void main(String[] args) {
+        String protocol = "T=1";
+        String sizes = "100,1000,10000";
+        int iterations = 10;
+        int lookups = 200;
+        long seed = 1;
+        boolean csv = false;
+        for (int index = 0; index < args.length; index++) {
+            if (args[index].equals("-csv")) {
+                csv = true;
+                continue;
+            }
+            String value = (index + 1 < args.length) ? args[index + 1] : "";
+            switch (args[index++]) {
+                case "-p":
+                    protocol = value;
+                    break;
+                case "-c":
+                    sizes = value;
+                    break;
+                case "-n":
+                    iterations = Integer.parseInt(value);
+                    break;
+                case "-l":
+                    lookups = Integer.parseInt(value);
+                    break;
+                case "-s":
+                    seed = Long.parseLong(value);
+                    break;
+                default:
+                    System.err.println("usage: AramScalingBenchmark [-p T=0|T=1] [-c sizes]"
+                            + " [-n iterations] [-l lookups] [-s seed] [-csv]");
+                    System.exit(2);
+                    return;
+            }
+        }
+
+        String format = csv ? "%s,%s,%s,%s,%s,%s,%s,%s,%s,%s,%s,%s,%s"
+                : "%7s %7s %6s %7s %5s %6s %6s %7s %7s %9s %6s %9s %10s";
+        if (!csv) {
+            System.out.println("jCardSim " + protocol + ", " + iterations + " downloads and "
+                    + lookups + " lookups for each corpus (seed " + seed + ")");
+        }
+        System.out.println(String.format(format, "corpus", "stored", "full@", "limit", "AIDs",
+                "hashes", "AR-DOs", "values~", "rules", "us/store", "APDUs", "us/chunk",
+                "us/lookup"));
+        for (String size : sizes.split(",")) {
+            measure(protocol, Integer.parseInt(size.trim()), iterations, lookups, seed, format);
+        }
+    }
+
+    private static void measure(String protocol, int size, int iterations, int lookups,
+            long seed, String format) {
+        AramBenchmark card = new AramBenchmark(protocol, NO_PROFILES);
+        card.select(0x00);
+        card.exchange(INITIALIZE_UPDATE);
+        card.exchange(EXTERNAL_AUTHENTICATE);
+
+        List<RuleCorpus.Rule> stored = new ArrayList<>();
+        Set<String> aids = new HashSet<>();
+        Set<String> hashes = new HashSet<>();
+        Set<String> arDos = new HashSet<>();
+        long values = 0;
+        long rules = 0;
+        String fullAt = "-";
+        String limit = "-";
+        card.reset();
+        for (RuleCorpus.Rule rule : RuleCorpus.generate(size, seed)) {
+            if (!store(card, rule.getRefArDo())) {
+                if (fullAt.equals("-")) {
+                    fullAt = Integer.toString(stored.size());
+                    limit = getLimit(stored.size(), aids, hashes, arDos, rule);
+                }
+                continue;
+            }
+            stored.add(rule);
+            values += aids.add(AramSimulator.toHex(rule.mAid)) ? rule.mAid.length : 0;
+            values += hashes.add(AramSimulator.toHex(rule.mHash)) ? rule.mHash.length : 0;
+            values += arDos.add(AramSimulator.toHex(rule.mArDo)) ? rule.mArDo.length : 0;
+            rules += rule.getRefArDo().length;
+        }
+        double storeMicros = card.getNanos() / 1000.0 / size;
+
+        card.reset();
+        for (int index = 0; index < iterations; index++) {
+            card.getData(0xFF40);
+        }
+        int apdus = card.getApdus() / iterations;
+        double chunkMicros = card.getNanos() / 1000.0 / card.getApdus();
+
+        double lookupMicros = 0;
+        if (!stored.isEmpty()) {
+            Random random = new Random(seed);
+            card.reset();
+            for (int index = 0; index < lookups; index++) {
+                getSpecific(card, stored.get(random.nextInt(stored.size())).getRefDo());
+            }
+            lookupMicros = card.getNanos() / 1000.0 / lookups;
+        }
+
+        System.out.println(String.format(format, size, stored.size(), fullAt, limit, aids.size(),
+                hashes.size(), arDos.size(), values, rules, String.format("%.1f", storeMicros),
+                apdus, String.format("%.1f", chunkMicros), String.format("%.1f", lookupMicros)));
+    }
+
+    /*
+       Returns the limit of the applet which the REF-AR-DO rejected with 6A84 would exceed with
+       the specified number of the REF-AR-DOs and the distinct values stored so far.
+    */
+    private static String getLimit(int rules, Set<String> aids, Set<String> hashes,
+            Set<String> arDos, RuleCorpus.Rule rule) {
+        if (rules >= MAX_RULES) {
+            return "rules";
+        }
+        if ((aids.size() >= MAX_AIDS) && !aids.contains(AramSimulator.toHex(rule.mAid))) {
+            return "AIDs";
+        }
+        if ((hashes.size() >= MAX_HASHES) && !hashes.contains(AramSimulator.toHex(rule.mHash))) {
+            return "hashes";
+        }
+        if ((arDos.size() >= MAX_AR_DOS) && !arDos.contains(AramSimulator.toHex(rule.mArDo))) {
+            return "AR-DOs";
+        }
+        return "?";
+    }
+
+    /*
+       Stores the REF-AR-DO with the single block of STORE DATA. Returns false if the rule store
+       is full.
+    */
+    private static boolean store(AramBenchmark card, byte[] refArDo) {
+        byte[] data = RuleCorpus.tlv(TAG_COMMAND_STORE_REF_AR_DO, refArDo);
+        byte[] command = new byte[data.length + 5];
+        command[0] = (byte) 0x84;
+        command[1] = (byte) 0xE2;
+        command[2] = (byte) 0x90;
+        command[4] = (byte) data.length;
+        System.arraycopy(data, 0, command, 5, data.length);
+
+        byte[] response = card.transmit(command);
+        int sw = AramSimulator.getStatus(response);
+        if (sw == SW_FILE_FULL) {
+            return false;
+        }
+        if (sw != AramSimulator.SW_NO_ERROR) {
+            throw new IllegalStateException(String.format("SW %04X", sw));
+        }
+        return true;
+    }
+
+    private static byte[] getSpecific(AramBenchmark card, byte[] refDo) {
+        byte[] command = new byte[refDo.length + 5];
+        command[0] = (byte) 0x80;
+        command[1] = (byte) 0xCA;
+        command[2] = (byte) 0xFF;
+        command[3] = (byte) 0x50;
+        command[4] = (byte) refDo.length;
+        System.arraycopy(refDo, 0, command, 5, refDo.length);
+        return card.exchange(command);
+    }
+}
@@ -0,0 +1,98 @@
+/*
+ *  Copyright (C) 2018 cheeriotb <cheerio.the.bear@gmail.com>
+ *
+ *  This program is free software; you can redistribute it and/or modify
+ *  it under the terms of the GNU General Public License version 2 as
+ *  published by the Free Software Foundation.
+ *
+ *  This program is distributed in the hope that it will be useful,
+ *  but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *  GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License
+ *  along with this program; if not, write to the Free Software
+ *  Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston,
+ *  MA 02110-1301, USA.
+ */
+
+package com.github.cheeriotb.aram.host;
+
+import com.github.cheeriotb.aram.cardlet.AramApplet;
+import com.licel.jcardsim.smartcardio.CardSimulator;
+import com.licel.jcardsim.utils.AIDUtil;
+import javacard.framework.Applet;
+
+/*
+   The applet installed into jCardSim, shared by the tools running it on the host such as the
+   benchmarks and the card server.
+
+   The applet specific install parameters are the ones described in README.md, which are
+   preceded by the instance AID and the empty control information as the Java Card RE does.
+*/
+public final class AramSimulator {
+    static final String APPLET_AID = "A00000015141434C00";
+
+    static final int SW_NO_ERROR = 0x9000;
+
+    private final CardSimulator mSimulator;
+
+    public AramSimulator(String protocol, byte[] parameters) {
+        this(protocol, AramApplet.class, parameters);
+    }
+
+    AramSimulator(String protocol, Class<? extends Applet> applet, byte[] parameters) {
+        mSimulator = new CardSimulator();
+        mSimulator.changeProtocol(protocol);
+
+        byte[] install = getInstallParameters(parameters);
+        mSimulator.installApplet(AIDUtil.create(APPLET_AID), applet, install, (short) 0,
+                (byte) install.length);
+    }
+
+    public byte[] transmit(byte[] command) {
+        return mSimulator.transmitCommand(command);
+    }
+
+    public void reset() {
+        mSimulator.reset();
+    }
+
+    public byte[] getAtr() {
+        return mSimulator.getATR();
+    }
+
+    /*
+       Returns the install parameters: instance AID, control information and applet parameters.
+    */
+    static byte[] getInstallParameters(byte[] parameters) {
+        byte[] aid = hex(APPLET_AID);
+        byte[] install = new byte[aid.length + parameters.length + 3];
+        install[0] = (byte) aid.length;
+        System.arraycopy(aid, 0, install, 1, aid.length);
+        install[aid.length + 2] = (byte) parameters.length;
+        System.arraycopy(parameters, 0, install, aid.length + 3, parameters.length);
+        return install;
+    }
+
+    static int getStatus(byte[] response) {
+        return ((response[response.length - 2] & 0xFF) << 8)
+                | (response[response.length - 1] & 0xFF);
+    }
+
+    static byte[] hex(String text) {
+        byte[] bytes = new byte[text.length() / 2];
+        for (int index = 0; index < bytes.length; index++) {
+            bytes[index] = (byte) Integer.parseInt(text.substring(index * 2, index * 2 + 2), 16);
+        }
+        return bytes;
+    }
+
+    static String toHex(byte[] bytes) {
+        StringBuilder text = new StringBuilder();
+        for (byte value : bytes) {
+            text.append(String.format("%02X", value & 0xFF));
+        }
+        return text.toString();
+    }
+}
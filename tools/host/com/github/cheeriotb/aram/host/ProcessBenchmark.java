@@ -0,0 +1,355 @@
+/*
+ *  Copyright (C) 2018 cheeriotb <cheerio.the.bear@gmail.com>
+ *
+ *  This program is free software; you can redistribute it and/or modify
+ *  it under the terms of the GNU General Public License version 2 as
+ *  published by the Free Software Foundation.
+ *
+ *  This program is distributed in the hope that it will be useful,
+ *  but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *  GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License
+ *  along with this program; if not, write to the Free Software
+ *  Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston,
+ *  MA 02110-1301, USA.
+ */
+
+package com.github.cheeriotb.aram.host;
+
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import javacard.framework.APDU;
+import javacard.framework.Applet;
+import javacard.framework.ISOException;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+/*
+   Microbenchmarks of process() of the applet, for the dispatch of SELECT and GET DATA and for
+   the outgoing data written out part by part by processOutgoing().
+
+   Each benchmark transmits fixed commands prepared at the set up to the applet installed into
+   jCardSim, so nothing but the simulator and the applet runs in the measurement. The Le of the
+   commands is taken from 6Cxx at the set up, so that no benchmark other than wrongLength gets
+   6Cxx on T=0. Run them with the GC profiler of JMH to see the allocation per operation:
+
+       java org.openjdk.jmh.Main -prof gc ProcessBenchmark
+
+   Most of the allocation per operation is made by the simulator for the command and the
+   response. main() therefore runs the same commands against ShapeApplet, which returns the
+   responses of the same lengths and status words from a preallocated buffer, and reports the
+   commands for which the applet allocates more than it. The exit status is 1 if there is any.
+   See the microbenchmark target of the make file for the class path.
+*/
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ProcessBenchmark {
+    // Allocation per operation which the measurement by ThreadMXBean may differ by.
+    private static final long ALLOCATION_TOLERANCE = 16;
+    private static final int CHECK_OPERATIONS = 10000;
+    private static final int CHECK_ROUNDS = 3;
+
+    private static final byte[] SELECT =
+            AramSimulator.hex("00A4040009" + AramSimulator.APPLET_AID);
+    private static final byte[] GET_DATA_REFRESH_TAG = AramSimulator.hex("80CADF2000");
+    private static final byte[] GET_DATA_ALL = AramSimulator.hex("80CAFF4000");
+    private static final byte[] GET_DATA_NEXT = AramSimulator.hex("80CAFF6000");
+    // Le bigger than Response-Refresh-Tag-DO, which is rejected with 6Cxx on T=0.
+    private static final byte[] GET_DATA_REFRESH_TAG_WRONG_LENGTH =
+            AramSimulator.hex("80CADF2020");
+    private static final byte[] NO_PARAMETERS = new byte[0];
+
+    /*
+       The applet installed into jCardSim with the commands fitted to it.
+    */
+    abstract static class Simulated {
+        String mProtocol;
+        AramSimulator mSimulator;
+        byte[] mGetResponse;
+        byte[] mRefreshTag;
+        byte[] mAll;
+        byte[][] mNext;
+
+        // The response to the command fitted lastly.
+        private byte[] mResponse;
+
+        void install(String protocol) {
+            mProtocol = protocol;
+            mSimulator = new AramSimulator(protocol, NO_PARAMETERS);
+
+            byte[] response = transmit(SELECT);
+            checkStatus(response, 0x6100);
+            mGetResponse = new byte[] { 0x00, (byte) 0xC0, 0x00, 0x00, response[1] };
+            checkStatus(transmit(mGetResponse), AramSimulator.SW_NO_ERROR & 0xFF00);
+            mRefreshTag = fit(GET_DATA_REFRESH_TAG);
+
+            // GET DATA [Next] until the whole rules have been sent.
+            mAll = fit(GET_DATA_ALL);
+            List<byte[]> next = new ArrayList<>();
+            while (true) {
+                byte[] command = fit(GET_DATA_NEXT);
+                if (AramSimulator.getStatus(mResponse) != AramSimulator.SW_NO_ERROR) {
+                    break;
+                }
+                next.add(command);
+                if (next.size() > 0x100) {
+                    throw new IllegalStateException("GET DATA [Next] never ends");
+                }
+            }
+            mNext = next.toArray(new byte[next.size()][]);
+            checkStatus(transmit(SELECT), 0x6100);
+        }
+
+        byte[] transmit(byte[] command) {
+            return mSimulator.transmit(command);
+        }
+
+        /*
+           Returns the command with the Le given by 6Cxx if any, after the response to it has
+           been taken into mResponse, so that the outgoing data is left as it would be for the
+           command.
+        */
+        private byte[] fit(byte[] command) {
+            byte[] response = transmit(command);
+            if ((AramSimulator.getStatus(response) & 0xFF00) == 0x6C00) {
+                command = Arrays.copyOf(command, command.length);
+                command[command.length - 1] = response[1];
+                response = transmit(command);
+            }
+            mResponse = response;
+            return command;
+        }
+
+        /*
+           Returns the fixed commands of each benchmark, in the order of the transmission.
+        */
+        Map<String, byte[][]> getOperations() {
+            Map<String, byte[][]> operations = new LinkedHashMap<>();
+            operations.put("select", new byte[][] { SELECT });
+            operations.put("selectAndGetResponse", new byte[][] { SELECT, mGetResponse });
+            operations.put("getDataRefreshTag", new byte[][] { mRefreshTag });
+            operations.put("getDataAll", new byte[][] { mAll });
+            byte[][] all = new byte[mNext.length + 1][];
+            all[0] = mAll;
+            System.arraycopy(mNext, 0, all, 1, mNext.length);
+            operations.put("getDataAllAndNext", all);
+            operations.put("getDataNextNotSatisfied", new byte[][] { GET_DATA_NEXT });
+            if ("T=0".equals(mProtocol)) {
+                operations.put("wrongLength", new byte[][] { GET_DATA_REFRESH_TAG_WRONG_LENGTH });
+            }
+            return operations;
+        }
+    }
+
+    @State(Scope.Thread)
+    public static class Card extends Simulated {
+        @Param({"T=1", "T=0"})
+        public String protocol;
+
+        @Setup
+        public void setUp() {
+            install(protocol);
+        }
+    }
+
+    @State(Scope.Thread)
+    public static class CardT0 extends Simulated {
+        @Setup
+        public void setUp() {
+            install("T=0");
+        }
+    }
+
+    /*
+       SELECT without Le, which returns 61xx for the FCI.
+    */
+    @Benchmark
+    public byte[] select(Card card) {
+        return card.transmit(SELECT);
+    }
+
+    /*
+       SELECT followed by GET RESPONSE, so that GET RESPONSE costs the difference from select.
+    */
+    @Benchmark
+    public void selectAndGetResponse(Card card, Blackhole blackhole) {
+        blackhole.consume(card.transmit(SELECT));
+        blackhole.consume(card.transmit(card.mGetResponse));
+    }
+
+    @Benchmark
+    public byte[] getDataRefreshTag(Card card) {
+        return card.transmit(card.mRefreshTag);
+    }
+
+    /*
+       The first part of Response-ALL-REF-AR-DO. The rest is discarded by the next command.
+    */
+    @Benchmark
+    public byte[] getDataAll(Card card) {
+        return card.transmit(card.mAll);
+    }
+
+    /*
+       The whole Response-ALL-REF-AR-DO taken by GET DATA [All] and GET DATA [Next].
+    */
+    @Benchmark
+    public void getDataAllAndNext(Card card, Blackhole blackhole) {
+        blackhole.consume(card.transmit(card.mAll));
+        for (byte[] command : card.mNext) {
+            blackhole.consume(card.transmit(command));
+        }
+    }
+
+    /*
+       GET DATA [Next] without any outgoing data, which is rejected with
+       SW_CONDITIONS_NOT_SATISFIED.
+    */
+    @Benchmark
+    public byte[] getDataNextNotSatisfied(Card card) {
+        return card.transmit(GET_DATA_NEXT);
+    }
+
+    /*
+       GET DATA [Refresh tag] with the wrong Le, which is rejected with 6Cxx on T=0.
+    */
+    @Benchmark
+    public byte[] wrongLength(CardT0 card) {
+        return card.transmit(GET_DATA_REFRESH_TAG_WRONG_LENGTH);
+    }
+
+    /*
+       Reports the allocation per operation of each benchmark on the both protocols.
+    */
+    public static void main(String[] args) {
+        com.sun.management.ThreadMXBean threads =
+                (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        threads.setThreadAllocatedMemoryEnabled(true);
+
+        // Once without the report, for the allocation made until the code is compiled.
+        check(threads, "T=1", false);
+
+        System.out.println(String.format("%-6s %-24s %10s %10s", "", "operation", "applet",
+                "shape"));
+        boolean allocating = check(threads, "T=1", true);
+        allocating |= check(threads, "T=0", true);
+        System.exit(allocating ? 1 : 0);
+    }
+
+    /*
+       Returns true if the applet allocates more than ShapeApplet for any of the operations.
+    */
+    private static boolean check(com.sun.management.ThreadMXBean threads, String protocol,
+            boolean report) {
+        Card card = new Card();
+        card.install(protocol);
+        AramSimulator shape = new AramSimulator(protocol, ShapeApplet.class, NO_PARAMETERS);
+
+        boolean allocating = false;
+        for (Map.Entry<String, byte[][]> operation : card.getOperations().entrySet()) {
+            byte[][] commands = operation.getValue();
+            byte[][] responses = new byte[commands.length][];
+            for (int index = 0; index < commands.length; index++) {
+                responses[index] = card.transmit(commands[index]);
+            }
+
+            long applet = Long.MAX_VALUE;
+            long expected = Long.MAX_VALUE;
+            for (int round = 0; round < CHECK_ROUNDS; round++) {
+                applet = Math.min(applet, measure(threads, card.mSimulator, commands, null));
+                expected = Math.min(expected, measure(threads, shape, commands, responses));
+            }
+            boolean allocated = (applet - expected) > ALLOCATION_TOLERANCE;
+            allocating |= allocated;
+            if (report) {
+                System.out.println(String.format("%-6s %-24s %10d %10d%s", protocol,
+                        operation.getKey(), applet, expected, allocated ? "  ALLOCATING" : ""));
+            }
+        }
+        return allocating;
+    }
+
+    /*
+       Returns the bytes allocated per operation. The responses are given for ShapeApplet.
+    */
+    private static long measure(com.sun.management.ThreadMXBean threads,
+            AramSimulator simulator, byte[][] commands, byte[][] responses) {
+        long thread = Thread.currentThread().getId();
+        long start = threads.getThreadAllocatedBytes(thread);
+        for (int count = 0; count < CHECK_OPERATIONS; count++) {
+            for (int index = 0; index < commands.length; index++) {
+                if (responses != null) {
+                    ShapeApplet.setResponse(responses[index], commands[index].length > 5);
+                }
+                simulator.transmit(commands[index]);
+            }
+        }
+        return (threads.getThreadAllocatedBytes(thread) - start) / CHECK_OPERATIONS;
+    }
+
+    private static void checkStatus(byte[] response, int mask) {
+        int sw = AramSimulator.getStatus(response);
+        if ((sw & 0xFF00) != mask) {
+            throw new IllegalStateException(String.format("SW %04X", sw));
+        }
+    }
+
+    /*
+       Applet returning the response set beforehand to any command including SELECT, in the way
+       the applet does, from the buffer allocated at the installation.
+    */
+    public static final class ShapeApplet extends Applet {
+        private static short sLength;
+        private static short sStatus;
+        private static boolean sIncoming;
+
+        private final byte[] mData = new byte[0x100];
+
+        private ShapeApplet() {
+        }
+
+        public static void install(byte[] bArray, short bOffset, byte bLength) {
+            new ShapeApplet().register(bArray, (short) (bOffset + 1), bArray[bOffset]);
+        }
+
+        static void setResponse(byte[] response, boolean incoming) {
+            sLength = (short) (response.length - 2);
+            sStatus = (short) AramSimulator.getStatus(response);
+            sIncoming = incoming;
+        }
+
+        public void process(APDU apdu) throws ISOException {
+            if (sIncoming) {
+                apdu.setIncomingAndReceive();
+            }
+            if (sLength != 0) {
+                apdu.setOutgoing();
+                apdu.setOutgoingLength(sLength);
+                apdu.sendBytesLong(mData, (short) 0, sLength);
+            }
+            if (sStatus != (short) AramSimulator.SW_NO_ERROR) {
+                ISOException.throwIt(sStatus);
+            }
+        }
+    }
+}
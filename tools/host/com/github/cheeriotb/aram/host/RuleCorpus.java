@@ -0,0 +1,282 @@
+/*
+ *  Copyright (C) 2018 cheeriotb <cheerio.the.bear@gmail.com>
+ *
+ *  This program is free software; you can redistribute it and/or modify
+ *  it under the terms of the GNU General Public License version 2 as
+ *  published by the Free Software Foundation.
+ *
+ *  This program is distributed in the hope that it will be useful,
+ *  but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *  GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License
+ *  along with this program; if not, write to the Free Software
+ *  Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston,
+ *  MA 02110-1301, USA.
+ */
+
+package com.github.cheeriotb.aram.host;
+
+import java.io.ByteArrayOutputStream;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+
+/*
+   Generator of synthetic corpora of access rules for the scaling benchmark.
+
+   The same corpus is generated for the same number of the REF-AR-DOs and the same seed. The
+   values are drawn as they are found in the rules on the field:
+
+   - 1 / 10 of the REF-DOs are for any application (no hash). The others are for the hashes of
+     count / 4 certificates (4 at least), most of which are SHA-1 and 1 / 5 are SHA-256. Each
+     certificate is drawn with the weight of 1 / rank, so that a few certificates sign most of
+     the applications.
+   - 1 / 20 of the REF-DOs are for UICC Carrier Privileges (FFFFFFFFFFFF), and 1 / 10 are for all
+     applets (no AID). The others are for the AIDs of count / 4 applets (4 at least) drawn in the
+     same way, each having the RID of one of a few providers and a PIX of 2 to 11 bytes.
+   - The AR-DOs are drawn in the same way out of count / 10 of them (2 at least). Half of them
+     allow any APDU, 1 / 5 deny any APDU, and the others have 1 to 4 APDU filters out of a few
+     typical ones. 1 / 3 of them also have NFC-AR-DO. The AR-DO for UICC Carrier Privileges
+     allows any APDU and has PERM-AR-DO instead.
+
+   Each REF-DO appears only once. The corpus is drawn regardless of the limits of the applet,
+   so the big ones exceed MAX_RULES and the numbers of the distinct values which the applet
+   can store. The corpus can be printed in the syntax of the rule file, so that it can also be
+   compiled by the rule compiler:
+
+       java com.github.cheeriotb.aram.host.RuleCorpus [-n count] [-s seed]
+*/
+final class RuleCorpus {
+    private static final int TAG_REF_AR_DO            = 0xE2;
+    private static final int TAG_REF_DO               = 0xE1;
+    private static final int TAG_AR_DO                = 0xE3;
+    private static final int TAG_AID_REF_DO           = 0x4F;
+    private static final int TAG_DEVICE_APP_ID_REF_DO = 0xC1;
+    private static final int TAG_APDU_AR_DO           = 0xD0;
+    private static final int TAG_NFC_AR_DO            = 0xD1;
+    private static final int TAG_PERM_AR_DO           = 0xDB;
+
+    private static final int NEVER  = 0;
+    private static final int ALWAYS = 1;
+
+    private static final byte[] CARRIER_PRIVILEGES_AID = AramSimulator.hex("FFFFFFFFFFFF");
+    private static final byte[] CARRIER_PRIVILEGES_PERM = AramSimulator.hex("0000000000000001");
+    private static final Access CARRIER_PRIVILEGES_ACCESS = new Access(
+            concat(tlv(TAG_APDU_AR_DO, new byte[] { ALWAYS }),
+                    tlv(TAG_PERM_AR_DO, CARRIER_PRIVILEGES_PERM)),
+            " apdu=always perm=" + AramSimulator.toHex(CARRIER_PRIVILEGES_PERM));
+
+    private static final String[] RIDS = {
+        "A000000151", "A000000003", "A000000004", "A000000476", "A000000063", "A000000087"
+    };
+
+    // The header and the mask of the typical APDU filters.
+    private static final String[] FILTERS = {
+        "00A40400FFFFFF00", "00B00000FFFF0000", "00D60000FFFF0000", "00060000FFFF0000",
+        "A0060000FFFF0000", "80CA0000FFFF0000", "80E20000FFFF0000", "94000000FF000000"
+    };
+
+    private static final class Access {
+        final byte[] mArDo;
+        final String mText;
+
+        Access(byte[] arDo, String text) {
+            mArDo = arDo;
+            mText = text;
+        }
+    }
+
+    static final class Rule {
+        final byte[] mAid;
+        final byte[] mHash;
+        final byte[] mArDo;
+        final String mText;
+
+        Rule(byte[] aid, byte[] hash, byte[] arDo, String text) {
+            mAid = aid;
+            mHash = hash;
+            mArDo = arDo;
+            mText = text;
+        }
+
+        byte[] getRefDo() {
+            return tlv(TAG_REF_DO, concat(tlv(TAG_AID_REF_DO, mAid),
+                    tlv(TAG_DEVICE_APP_ID_REF_DO, mHash)));
+        }
+
+        byte[] getRefArDo() {
+            return tlv(TAG_REF_AR_DO, concat(getRefDo(), tlv(TAG_AR_DO, mArDo)));
+        }
+    }
+
+    private final Random mRandom;
+    private final List<byte[]> mAids = new ArrayList<>();
+    private final List<byte[]> mHashes = new ArrayList<>();
+    private final List<Access> mAccesses = new ArrayList<>();
+
+    private RuleCorpus(int count, long seed) {
+        mRandom = new Random(seed);
+        // The applets and the certificates make far more REF-DOs than count, so that the
+        // distinct ones are drawn quickly. The small corpora have 4 of them at least.
+        for (int index = 0; index < Math.max(4, count / 4); index++) {
+            byte[] rid = AramSimulator.hex(RIDS[mRandom.nextInt(RIDS.length)]);
+            mAids.add(concat(rid, randomBytes(2 + mRandom.nextInt(10))));
+            mHashes.add(randomBytes((mRandom.nextInt(5) == 0) ? 32 : 20));
+        }
+        for (int index = 0; index < Math.max(2, count / 10); index++) {
+            mAccesses.add(nextAccess());
+        }
+    }
+
+    public static void main(String[] args) {
+        int count = 100;
+        long seed = 1;
+        for (int index = 0; index < args.length; index += 2) {
+            String value = (index + 1 < args.length) ? args[index + 1] : "";
+            switch (args[index]) {
+                case "-n":
+                    count = Integer.parseInt(value);
+                    break;
+                case "-s":
+                    seed = Long.parseLong(value);
+                    break;
+                default:
+                    System.err.println("usage: RuleCorpus [-n count] [-s seed]");
+                    System.exit(2);
+                    return;
+            }
+        }
+
+        System.out.println("# Synthetic corpus of " + count + " REF-AR-DOs (seed " + seed + ").");
+        System.out.println();
+        System.out.println("profile CORPUS");
+        System.out.println();
+        System.out.println("group Synthetic REF-AR-DOs");
+        for (Rule rule : generate(count, seed)) {
+            System.out.println(rule.mText);
+        }
+    }
+
+    static List<Rule> generate(int count, long seed) {
+        RuleCorpus corpus = new RuleCorpus(count, seed);
+        List<Rule> rules = new ArrayList<>();
+        Set<String> refDos = new HashSet<>();
+        while (rules.size() < count) {
+            Rule rule = corpus.nextRule();
+            if (refDos.add(AramSimulator.toHex(rule.getRefDo()))) {
+                rules.add(rule);
+            }
+        }
+        return rules;
+    }
+
+    private Rule nextRule() {
+        byte[] aid;
+        byte[] hash;
+        Access access;
+        int kind = mRandom.nextInt(20);
+        if (kind == 0) {
+            aid = CARRIER_PRIVILEGES_AID;
+            hash = draw(mHashes);
+            access = CARRIER_PRIVILEGES_ACCESS;
+        } else {
+            aid = (kind <= 2) ? new byte[0] : draw(mAids);
+            hash = (mRandom.nextInt(10) == 0) ? new byte[0] : draw(mHashes);
+            access = draw(mAccesses);
+        }
+        String text = "rule aid=" + toText(aid) + " hash=" + toText(hash) + access.mText;
+        return new Rule(aid, hash, access.mArDo, text);
+    }
+
+    private Access nextAccess() {
+        StringBuilder text = new StringBuilder();
+        ByteArrayOutputStream arDo = new ByteArrayOutputStream();
+        int access = mRandom.nextInt(10);
+        if (access < 5) {
+            write(arDo, tlv(TAG_APDU_AR_DO, new byte[] { ALWAYS }));
+            text.append(" apdu=always");
+        } else if (access < 7) {
+            write(arDo, tlv(TAG_APDU_AR_DO, new byte[] { NEVER }));
+            text.append(" apdu=never");
+        } else {
+            ByteArrayOutputStream filters = new ByteArrayOutputStream();
+            List<String> drawn = new ArrayList<>();
+            for (int index = 1 + mRandom.nextInt(4); index > 0; index--) {
+                String filter = FILTERS[mRandom.nextInt(FILTERS.length)];
+                if (!drawn.contains(filter)) {
+                    drawn.add(filter);
+                    write(filters, AramSimulator.hex(filter));
+                }
+            }
+            write(arDo, tlv(TAG_APDU_AR_DO, filters.toByteArray()));
+            text.append(" apdu=");
+            for (int index = 0; index < drawn.size(); index++) {
+                String filter = drawn.get(index);
+                text.append((index == 0) ? "" : ",").append(filter, 0, 8).append('/')
+                        .append(filter, 8, 16);
+            }
+        }
+        if (mRandom.nextInt(3) == 0) {
+            write(arDo, tlv(TAG_NFC_AR_DO, new byte[] { ALWAYS }));
+            text.append(" nfc=always");
+        }
+        return new Access(arDo.toByteArray(), text.toString());
+    }
+
+    /*
+       Draws one of the values with the weight of 1 / rank.
+    */
+    private <T> T draw(List<T> values) {
+        double total = 0;
+        for (int rank = 1; rank <= values.size(); rank++) {
+            total += 1.0 / rank;
+        }
+        double point = mRandom.nextDouble() * total;
+        for (int rank = 1; rank <= values.size(); rank++) {
+            point -= 1.0 / rank;
+            if (point < 0) {
+                return values.get(rank - 1);
+            }
+        }
+        return values.get(values.size() - 1);
+    }
+
+    private byte[] randomBytes(int length) {
+        byte[] bytes = new byte[length];
+        mRandom.nextBytes(bytes);
+        return bytes;
+    }
+
+    private static String toText(byte[] value) {
+        return (value.length != 0) ? AramSimulator.toHex(value) : "*";
+    }
+
+    private static void write(ByteArrayOutputStream out, byte[] bytes) {
+        out.write(bytes, 0, bytes.length);
+    }
+
+    static byte[] tlv(int tag, byte[] value) {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        out.write(tag);
+        if (value.length > 0xFF) {
+            out.write(0x82);
+            out.write(value.length >> 8);
+        } else if (value.length > 0x7F) {
+            out.write(0x81);
+        }
+        out.write(value.length);
+        write(out, value);
+        return out.toByteArray();
+    }
+
+    private static byte[] concat(byte[] first, byte[] second) {
+        byte[] result = new byte[first.length + second.length];
+        System.arraycopy(first, 0, result, 0, first.length);
+        System.arraycopy(second, 0, result, first.length, second.length);
+        return result;
+    }
+}
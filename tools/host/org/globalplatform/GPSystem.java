@@ -0,0 +1,88 @@
+/*
+ *  Copyright (C) 2018 cheeriotb <cheerio.the.bear@gmail.com>
+ *
+ *  This program is free software; you can redistribute it and/or modify
+ *  it under the terms of the GNU General Public License version 2 as
+ *  published by the Free Software Foundation.
+ *
+ *  This program is distributed in the hope that it will be useful,
+ *  but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *  GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License
+ *  along with this program; if not, write to the Free Software
+ *  Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston,
+ *  MA 02110-1301, USA.
+ */
+
+package org.globalplatform;
+
+import javacard.framework.APDU;
+import javacard.framework.ISO7816;
+import javacard.framework.ISOException;
+
+/*
+   GPSystem of the benchmarks and the card server on the host, in place of the one of the Global
+   Platform API which jCardSim does not provide.
+
+   Only the secure channel used by the applet is provided. The session is opened with C-MAC by
+   EXTERNAL AUTHENTICATE without any key, and the commands are unwrapped as they are, so that
+   the access rules can be stored with STORE DATA on the host. Anyone sending the commands to
+   the applet could then write the rules, so the session is opened only if the system property
+   KEYLESS_PROPERTY is true. Otherwise EXTERNAL AUTHENTICATE is rejected with SW 6982 and STORE
+   DATA is never accepted. It shall never be on the class path of the applet for the cards.
+*/
+public final class GPSystem {
+    public static final String KEYLESS_PROPERTY = "aram.host.keylessSecureChannel";
+
+    private static final byte INS_EXTERNAL_AUTHENTICATE = (byte) 0x82;
+
+    // Each card of the card server loads this class by itself, so it never shares the session.
+    private static final SecureChannel SECURE_CHANNEL = new HostSecureChannel();
+
+    private static final class HostSecureChannel implements SecureChannel {
+        private byte mSecurityLevel = NO_SECURITY_LEVEL;
+
+        public short processSecurity(APDU apdu) {
+            if (apdu.getBuffer()[ISO7816.OFFSET_INS] == INS_EXTERNAL_AUTHENTICATE) {
+                if (!Boolean.getBoolean(KEYLESS_PROPERTY)) {
+                    ISOException.throwIt(ISO7816.SW_SECURITY_STATUS_NOT_SATISFIED);
+                }
+                mSecurityLevel = (byte) (AUTHENTICATED | C_MAC);
+            }
+            return 0;
+        }
+
+        public short wrap(byte[] buffer, short offset, short length) {
+            return length;
+        }
+
+        public short unwrap(byte[] buffer, short offset, short length) {
+            return length;
+        }
+
+        public short decryptData(byte[] buffer, short offset, short length) {
+            return length;
+        }
+
+        public short encryptData(byte[] buffer, short offset, short length) {
+            return length;
+        }
+
+        public void resetSecurity() {
+            mSecurityLevel = NO_SECURITY_LEVEL;
+        }
+
+        public byte getSecurityLevel() {
+            return mSecurityLevel;
+        }
+    }
+
+    private GPSystem() {
+    }
+
+    public static SecureChannel getSecureChannel() {
+        return SECURE_CHANNEL;
+    }
+}
@@ -0,0 +1,63 @@
+/*
+ *  Copyright (C) 2018 cheeriotb <cheerio.the.bear@gmail.com>
+ *
+ *  This program is free software; you can redistribute it and/or modify
+ *  it under the terms of the GNU General Public License version 2 as
+ *  published by the Free Software Foundation.
+ *
+ *  This program is distributed in the hope that it will be useful,
+ *  but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *  GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License
+ *  along with this program; if not, write to the Free Software
+ *  Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston,
+ *  MA 02110-1301, USA.
+ */
+
+package com.github.cheeriotb.aram.cardlet;
+
+/*
+   REF-AR-DOs stored at the installation for each profile.
+
+   This file is generated from merge-filters.txt by tools/RuleCompiler.java with
+   the rules target of the make file. Do not edit it by hand.
+*/
+final class RuleProfiles {
+    // The REF-AR-DO stored at the installation for PROFILE_CTS.
+    static final byte[] CTS_REF_AR_DOS = {
+        /*
+           Filtered applet
+
+           |REF-AR-DO|T|E2    | |                  | |                                        |
+           |         |L|32    | |                  | |                                        |
+           |         |V|REF-DO|T|E1                | |                                        |
+           |         | |      |L|14                | |                                        |
+           |         | |      |V|AID-REF-DO        |T|4F                                      |
+           |         | |      | |                  |L|10                                      |
+           |         | |      | |                  |V|A000000476416E64726F696443545341        |
+           |         | |      | |DeviceAppID-REF-DO|T|C1                                      |
+           |         | |      | |                  |L|00 (Not Specified)                      |
+           |         | |AR-DO |T|E3                | |                                        |
+           |         | |      |L|1A                | |                                        |
+           |         | |      |V|APDU-AR-DO        |T|D0                                      |
+           |         | |      | |                  |L|18                                      |
+           |         | |      | |                  |V|00A40400 / FFFFFF00                     |
+           |         | |      | |                  | |80CA0000 / FFFF0000                     |
+           |         | |      | |                  | |80E20000 / FFFF0000                     |
+        */
+        (byte) 0xE2, (byte) 0x32, (byte) 0xE1, (byte) 0x14, (byte) 0x4F, (byte) 0x10,
+        (byte) 0xA0, (byte) 0x00, (byte) 0x00, (byte) 0x04, (byte) 0x76, (byte) 0x41,
+        (byte) 0x6E, (byte) 0x64, (byte) 0x72, (byte) 0x6F, (byte) 0x69, (byte) 0x64,
+        (byte) 0x43, (byte) 0x54, (byte) 0x53, (byte) 0x41, (byte) 0xC1, (byte) 0x00,
+        (byte) 0xE3, (byte) 0x1A, (byte) 0xD0, (byte) 0x18, (byte) 0x00, (byte) 0xA4,
+        (byte) 0x04, (byte) 0x00, (byte) 0xFF, (byte) 0xFF, (byte) 0xFF, (byte) 0x00,
+        (byte) 0x80, (byte) 0xCA, (byte) 0x00, (byte) 0x00, (byte) 0xFF, (byte) 0xFF,
+        (byte) 0x00, (byte) 0x00, (byte) 0x80, (byte) 0xE2, (byte) 0x00, (byte) 0x00,
+        (byte) 0xFF, (byte) 0xFF, (byte) 0x00, (byte) 0x00
+    };
+
+    private RuleProfiles() {
+    }
+}